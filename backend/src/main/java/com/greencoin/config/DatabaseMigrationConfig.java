@@ -1,19 +1,117 @@
 package com.greencoin.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.List;
+
 /**
  * Migration helper to ensure database columns are the correct type
  * for Base64 image storage.
+ *
+ * New reports only store a short blob reference, but legacy rows keep their
+ * Base64 data until {@link com.greencoin.service.ImageMigrationJob} moves it.
  */
 @Slf4j
 @Configuration
 public class DatabaseMigrationConfig {
 
+    /** Sequences Hibernate takes ids from in blocks (allocationSize on the entities) */
+    private static final String[][] POOLED_ID_SEQUENCES = {
+            {"waste_reports", "waste_reports_id_seq"},
+            {"coin_transactions", "coin_transactions_id_seq"}
+    };
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Hibernate refuses to start when a sequence steps by less than the
+     * entity's allocationSize, so this has to run before JPA is set up.
+     */
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor idSequenceMigrationFirst() {
+        return new EntityManagerFactoryDependsOnPostProcessor("idSequenceMigration");
+    }
+
+    @Bean
+    public InitializingBean idSequenceMigration(JdbcTemplate jdbcTemplate) {
+        return () -> {
+            for (String[] table : POOLED_ID_SEQUENCES) {
+                String sequence = table[1];
+                try {
+                    List<Long> increments = jdbcTemplate.queryForList(
+                            "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() " +
+                                    "AND sequencename = ?", Long.class, sequence);
+                    if (increments.isEmpty()) {
+                        // New database: Hibernate creates the sequence with the right step
+                        continue;
+                    }
+                    if (increments.get(0) != ID_ALLOCATION_SIZE) {
+                        // SERIAL sequences are integer; blocks of 50 use them up 50 times faster
+                        jdbcTemplate.execute("ALTER TABLE " + table[0] + " ALTER COLUMN id TYPE BIGINT");
+                        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " AS BIGINT INCREMENT BY " +
+                                ID_ALLOCATION_SIZE);
+                        log.info("Sequence {} now increments by {}", sequence, ID_ALLOCATION_SIZE);
+                    }
+                } catch (Exception e) {
+                    log.info("Could not migrate sequence {}. Skipping. Error: {}", sequence, e.getMessage());
+                }
+            }
+        };
+    }
+
+    /**
+     * Created before the web server starts: every report write adds to it
+     * (see {@link com.greencoin.service.ReportRollupService}).
+     */
+    @Bean
+    public InitializingBean reportRollupTable(JdbcTemplate jdbcTemplate) {
+        return () -> {
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS report_rollups (" +
+                        "granularity VARCHAR(4) NOT NULL, " +
+                        "bucket TIMESTAMP NOT NULL, " +
+                        "tile_row INTEGER NOT NULL, " +
+                        "tile_col INTEGER NOT NULL, " +
+                        "status VARCHAR(20) NOT NULL, " +
+                        "report_count BIGINT NOT NULL, " +
+                        "PRIMARY KEY (granularity, bucket, tile_row, tile_col, status))");
+                // Scratch space of ReportRollupService.rebuild, recomputable, so not WAL-logged
+                jdbcTemplate.execute("CREATE UNLOGGED TABLE IF NOT EXISTS report_rollup_corrections (" +
+                        "id BIGINT PRIMARY KEY, " +
+                        "granularity VARCHAR(4) NOT NULL, " +
+                        "bucket TIMESTAMP NOT NULL, " +
+                        "tile_row INTEGER NOT NULL, " +
+                        "tile_col INTEGER NOT NULL, " +
+                        "status VARCHAR(20) NOT NULL, " +
+                        "report_count BIGINT NOT NULL)");
+            } catch (Exception e) {
+                log.info("Could not create report_rollups. Skipping. Error: {}", e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Created before the web server starts: failed uploads record their image
+     * there (see {@link com.greencoin.service.OrphanedImageCollector}).
+     */
+    @Bean
+    public InitializingBean orphanedImageTable(JdbcTemplate jdbcTemplate) {
+        return () -> {
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS orphaned_images (" +
+                        "digest CHAR(64) PRIMARY KEY, " +
+                        "discarded_at TIMESTAMP NOT NULL)");
+            } catch (Exception e) {
+                log.info("Could not create orphaned_images. Skipping. Error: {}", e.getMessage());
+            }
+        };
+    }
+
     @Bean
     public CommandLineRunner migrateDatabase(JdbcTemplate jdbcTemplate) {
         return args -> {
@@ -35,6 +133,69 @@ public class DatabaseMigrationConfig {
             } catch (Exception e) {
                 log.info("Column description might already be TEXT. Skipping. Error: {}", e.getMessage());
             }
+
+            // Composite indexes backing keyset pagination of list endpoints
+            String[] paginationIndexes = {
+                    "CREATE INDEX IF NOT EXISTS idx_waste_reports_status_reported " +
+                            "ON waste_reports(status, reported_at DESC, id DESC)",
+                    "CREATE INDEX IF NOT EXISTS idx_waste_reports_reporter_reported " +
+                            "ON waste_reports(reporter_id, reported_at DESC, id DESC)",
+                    "CREATE INDEX IF NOT EXISTS idx_waste_reports_collector_reported " +
+                            "ON waste_reports(collector_id, reported_at DESC, id DESC)",
+                    "CREATE INDEX IF NOT EXISTS idx_coin_transactions_user_created " +
+                            "ON coin_transactions(user_id, created_at DESC, id DESC)"
+            };
+            for (String sql : paginationIndexes) {
+                try {
+                    jdbcTemplate.execute(sql);
+                } catch (Exception e) {
+                    log.info("Could not create pagination index. Skipping. Error: {}", e.getMessage());
+                }
+            }
+
+            // Change sequence for delta sync: every insert/update of a report takes the next value
+            // and records the writing transaction, which is what clients sync against
+            String[] changeSeqMigration = {
+                    "CREATE SEQUENCE IF NOT EXISTS waste_reports_change_seq",
+                    "ALTER TABLE waste_reports ADD COLUMN IF NOT EXISTS change_seq BIGINT",
+                    "ALTER TABLE waste_reports ADD COLUMN IF NOT EXISTS change_xid BIGINT",
+                    "CREATE OR REPLACE FUNCTION waste_reports_set_change_seq() RETURNS trigger AS $$ " +
+                            "BEGIN NEW.change_seq := nextval('waste_reports_change_seq'); " +
+                            "NEW.change_xid := pg_current_xact_id()::text::bigint; RETURN NEW; END " +
+                            "$$ LANGUAGE plpgsql",
+                    "DROP TRIGGER IF EXISTS waste_reports_change_seq_trigger ON waste_reports",
+                    "CREATE TRIGGER waste_reports_change_seq_trigger BEFORE INSERT OR UPDATE ON waste_reports " +
+                            "FOR EACH ROW EXECUTE FUNCTION waste_reports_set_change_seq()",
+                    // Rows from before either column existed; the trigger sets both
+                    "UPDATE waste_reports SET change_seq = nextval('waste_reports_change_seq') " +
+                            "WHERE change_seq IS NULL OR change_xid IS NULL",
+                    "CREATE INDEX IF NOT EXISTS idx_waste_reports_change_seq ON waste_reports(change_seq)",
+                    "CREATE INDEX IF NOT EXISTS idx_waste_reports_change_xid ON waste_reports(change_xid)"
+            };
+            for (String sql : changeSeqMigration) {
+                try {
+                    jdbcTemplate.execute(sql);
+                } catch (Exception e) {
+                    log.info("Change sequence migration step failed. Skipping. Error: {}", e.getMessage());
+                }
+            }
+
+            try {
+                // applyBalanceChange inserts with a native query and relies on the default, which
+                // a table created by Hibernate with a SEQUENCE id doesn't have
+                jdbcTemplate.execute("ALTER TABLE coin_transactions " +
+                        "ALTER COLUMN id SET DEFAULT nextval('coin_transactions_id_seq')");
+            } catch (Exception e) {
+                log.info("Could not set coin_transactions id default. Skipping. Error: {}", e.getMessage());
+            }
+
+            try {
+                // Lets the outbox sweep find unpublished events without scanning sent ones
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_outbox_events_unpublished " +
+                        "ON outbox_events(id) WHERE published_at IS NULL");
+            } catch (Exception e) {
+                log.info("Could not create outbox index. Skipping. Error: {}", e.getMessage());
+            }
         };
     }
 }
@@ -0,0 +1,41 @@
+package com.greencoin.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * In-JVM Artemis broker with a STOMP acceptor, used when
+ * stomp.broker.mode=embedded.
+ *
+ * A second node started with stomp.broker.mode=relay and
+ * stomp.broker.relay.port pointing here shares its topics and user
+ * destinations, so multi-node fan-out can be exercised on one machine.
+ * Not meant for production: no persistence and no security.
+ */
+@Slf4j
+@org.springframework.context.annotation.Configuration
+@ConditionalOnProperty(name = "stomp.broker.mode", havingValue = "embedded")
+public class EmbeddedStompBrokerConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public EmbeddedActiveMQ embeddedStompBroker(@Value("${stomp.broker.embedded.port:61613}") int port)
+            throws Exception {
+        Configuration configuration = new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .setJMXManagementEnabled(false)
+                // Map Spring's /topic/ and /queue/ destinations onto Artemis routing types
+                .addAcceptorConfiguration("stomp", "tcp://localhost:" + port
+                        + "?protocols=STOMP;multicastPrefix=/topic/;anycastPrefix=/queue/");
+
+        log.info("Starting embedded STOMP broker on port {}", port);
+        EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        return broker;
+    }
+}
@@ -5,6 +5,7 @@ import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -16,6 +17,7 @@ import java.util.Base64;
 
 @Slf4j
 @Configuration
+@ConditionalOnProperty(name = "security.token-verifier", havingValue = "firebase", matchIfMissing = true)
 public class FirebaseConfig {
 
     @Value("${firebase.credentials-path:firebase-admin-key.json}")
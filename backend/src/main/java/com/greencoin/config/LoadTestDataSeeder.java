@@ -0,0 +1,64 @@
+package com.greencoin.config;
+
+import com.greencoin.model.CollectorWhitelist;
+import com.greencoin.model.User;
+import com.greencoin.repository.CollectorWhitelistRepository;
+import com.greencoin.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prepares the accounts the load generator signs in as (loadtest profile only).
+ *
+ * Collectors are whitelisted by email, so they get their role through the normal
+ * registration. There is no way to register as an authority, so those users are
+ * created directly. Naming must match the generator's:
+ * collector-{n}@loadtest.local, and uid loadtest-authority-{n}.
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+public class LoadTestDataSeeder {
+
+    private final CollectorWhitelistRepository whitelistRepository;
+    private final UserRepository userRepository;
+
+    @Value("${loadtest.collectors:200}")
+    private int collectors;
+
+    @Value("${loadtest.authorities:10}")
+    private int authorities;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        int whitelisted = 0;
+        for (int i = 0; i < collectors; i++) {
+            String email = "collector-" + i + "@loadtest.local";
+            if (!whitelistRepository.existsByEmail(email)) {
+                whitelistRepository.save(CollectorWhitelist.builder().email(email).addedBy("loadtest").build());
+                whitelisted++;
+            }
+        }
+
+        int created = 0;
+        for (int i = 0; i < authorities; i++) {
+            String uid = "loadtest-authority-" + i;
+            if (userRepository.findByFirebaseUid(uid).isEmpty()) {
+                userRepository.save(User.builder()
+                        .firebaseUid(uid)
+                        .email("authority-" + i + "@loadtest.local")
+                        .displayName("Load Test Authority " + i)
+                        .role(User.UserRole.AUTHORITY)
+                        .build());
+                created++;
+            }
+        }
+        log.info("Load test accounts ready: {} collectors whitelisted, {} authorities created", whitelisted, created);
+    }
+}
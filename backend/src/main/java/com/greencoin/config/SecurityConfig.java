@@ -1,10 +1,14 @@
 package com.greencoin.config;
 
+import com.greencoin.model.User;
+import com.greencoin.security.AuthenticatedUser;
 import com.greencoin.security.FirebaseTokenFilter;
+import com.greencoin.security.MetricsScrapeToken;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -23,6 +27,7 @@ import java.util.List;
 public class SecurityConfig {
 
     private final FirebaseTokenFilter firebaseTokenFilter;
+    private final MetricsScrapeToken metricsScrapeToken;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -30,7 +35,14 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/**", "/actuator/health", "/ws/**").permitAll()
+                        .requestMatchers("/api/auth/**", "/actuator/health", "/ws/**", "/api/images/**").permitAll()
+                        // Served on the public port (the platform routes only one), so scrapers authenticate
+                        .requestMatchers(MetricsScrapeToken.PATH).access((authentication, context) ->
+                                new AuthorizationDecision(metricsScrapeToken.matches(context.getRequest())))
+                        // The other endpoints list WebSocket sessions and thread stacks
+                        .requestMatchers("/actuator/**").access((authentication, context) ->
+                                new AuthorizationDecision(authentication.get().getPrincipal()
+                                        instanceof AuthenticatedUser user && user.hasRole(User.UserRole.AUTHORITY)))
                         .anyRequest().authenticated())
                 .addFilterBefore(firebaseTokenFilter, UsernamePasswordAuthenticationFilter.class);
 
@@ -57,7 +69,7 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(
                 Arrays.asList("Authorization", "Content-Type", "Accept", "X-Requested-With", "Origin", "x-auth-token"));
-        configuration.setExposedHeaders(List.of("x-auth-token"));
+        configuration.setExposedHeaders(List.of("x-auth-token", "X-Next-Cursor"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -1,19 +1,136 @@
 package com.greencoin.config;
 
+import com.greencoin.security.StompAuthChannelInterceptor;
+import com.greencoin.threads.WorkerThreads;
+import com.greencoin.websocket.BrokerFanoutMetrics;
+import com.greencoin.websocket.BrokerRoutingHeaderFilter;
+import com.greencoin.websocket.SlowSessionPolicy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+import java.time.Duration;
+
+/**
+ * STOMP over WebSocket.
+ *
+ * stomp.broker.mode selects the broker:
+ * - simple: in-memory broker, single node only
+ * - relay: every node relays to a shared external STOMP broker
+ * - embedded: relay to an Artemis broker started in this JVM
+ *   (see {@link EmbeddedStompBrokerConfig}), for running several nodes locally
+ */
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final SlowSessionPolicy slowSessionPolicy;
+    private final BrokerFanoutMetrics brokerFanoutMetrics;
+    private final BrokerRoutingHeaderFilter brokerRoutingHeaderFilter;
+    private final WorkerThreads workerThreads;
+
+    @Value("${stomp.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${stomp.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${stomp.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${stomp.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${stomp.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${stomp.broker.embedded.port:61613}")
+    private int embeddedPort;
+
+    @Value("${websocket.session.send-buffer-size-limit:256KB}")
+    private DataSize sendBufferSizeLimit;
+
+    @Value("${websocket.session.send-time-limit:10s}")
+    private Duration sendTimeLimit;
+
+    @Value("${websocket.channels.virtual-concurrency:256}")
+    private int virtualChannelConcurrency;
+
+    @Value("${websocket.channels.outbound-pool-size:32}")
+    private int outboundPoolSize;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        switch (brokerMode) {
+            case "simple" ->
+                // /queue carries user destinations (/user/queue/coins, /user/queue/tiles)
+                config.enableSimpleBroker("/topic", "/queue");
+            case "relay" -> enableRelay(config, relayHost, relayPort);
+            case "embedded" -> enableRelay(config, "localhost", embeddedPort);
+            default -> throw new IllegalStateException("Unknown stomp.broker.mode: " + brokerMode);
+        }
         config.setApplicationDestinationPrefixes("/app");
+        config.configureBrokerChannel().interceptors(brokerRoutingHeaderFilter, brokerFanoutMetrics);
+    }
+
+    private void enableRelay(MessageBrokerRegistry config, String host, int port) {
+        config.enableStompBrokerRelay("/topic", "/queue")
+                .setRelayHost(host)
+                .setRelayPort(port)
+                .setClientLogin(relayLogin)
+                .setClientPasscode(relayPasscode)
+                .setSystemLogin(relayLogin)
+                .setSystemPasscode(relayPasscode)
+                // Share user sessions between nodes, so /user/queue/coins reaches a user
+                // connected to any of them
+                .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                .setUserRegistryBroadcast("/topic/simp-user-registry");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthChannelInterceptor);
+        if (workerThreads.isVirtual()) {
+            registration.taskExecutor(workerThreads.virtualChannelExecutor(
+                    "clientInboundChannel-", virtualChannelConcurrency));
+        }
+    }
+
+    /**
+     * Each stalled client can hold an outbound thread in a socket write for up
+     * to the send time limit, so on platform threads the pool is sized for
+     * that rather than Spring's two per core.
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(slowSessionPolicy);
+        if (workerThreads.isVirtual()) {
+            registration.taskExecutor(workerThreads.virtualChannelExecutor(
+                    "clientOutboundChannel-", virtualChannelConcurrency));
+        } else {
+            registration.taskExecutor().corePoolSize(outboundPoolSize);
+        }
+    }
+
+    /**
+     * A session whose unsent frames exceed the buffer limit, or whose write is
+     * blocked past the time limit, is closed; below that, slow sessions lose
+     * superseded frames ({@link SlowSessionPolicy}).
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit((int) sendBufferSizeLimit.toBytes())
+                .setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .addDecoratorFactory(slowSessionPolicy);
     }
 
     @Override
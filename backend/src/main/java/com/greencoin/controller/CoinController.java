@@ -1,20 +1,31 @@
 package com.greencoin.controller;
 
 import com.greencoin.dto.CoinTransactionResponse;
+import com.greencoin.dto.CursorPage;
+import com.greencoin.dto.PageCursor;
 import com.greencoin.model.CoinTransaction;
 import com.greencoin.model.User;
+import com.greencoin.security.AuthenticatedUser;
 import com.greencoin.service.CoinService;
+import com.greencoin.service.ExportService;
 import com.greencoin.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Coin & Transaction Controller
@@ -29,6 +40,7 @@ public class CoinController {
 
     private final CoinService coinService;
     private final UserService userService;
+    private final ExportService exportService;
 
     /**
      * Get current user's coin balance
@@ -47,20 +59,51 @@ public class CoinController {
     }
 
     /**
-     * Get current user's transaction history
+     * Get current user's transaction history, newest first
+     * Pass the X-Next-Cursor header value as cursor to fetch the next page
      */
     @GetMapping("/transactions")
-    public ResponseEntity<List<CoinTransactionResponse>> getTransactions(Authentication authentication) {
-        String firebaseUid = authentication.getName();
-        User user = userService.getUserByFirebaseUid(firebaseUid)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public ResponseEntity<List<CoinTransactionResponse>> getTransactions(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        Long userId = userService.getUserId(principal);
 
-        List<CoinTransaction> transactions = coinService.getTransactionHistory(user.getId());
-        List<CoinTransactionResponse> response = transactions.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        CursorPage<CoinTransactionResponse> page = coinService
+                .getTransactionHistory(userId, PageCursor.decode(cursor), CursorPage.checkLimit(limit))
+                .map(this::mapToResponse);
 
-        return ResponseEntity.ok(response);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * Export the coin ledger of all users as CSV or NDJSON (AUTHORITY only), in id order
+     * Optional filters: createdAt from/to (days, both included) and type
+     * (EARNED/REDEEMED, repeatable). Streamed from a database cursor; gzip with Accept-Encoding.
+     */
+    @GetMapping("/transactions/export")
+    public void exportTransactions(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<CoinTransaction.TransactionType> type,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+
+        if (!principal.hasRole(User.UserRole.AUTHORITY)) {
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            return;
+        }
+        ExportService.Format exportFormat = ExportService.Format.of(format);
+        ExportService.Filter filter = ExportService.Filter.ofDays(from, to, type);
+
+        OutputStream out = ExportDownloads.start(response, exportFormat, "coin-transactions", acceptEncoding);
+        exportService.exportCoinTransactions(filter, exportFormat, out);
     }
 
     /**
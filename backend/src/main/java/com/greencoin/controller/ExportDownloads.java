@@ -0,0 +1,57 @@
+package com.greencoin.controller;
+
+import com.greencoin.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Headers and body stream for export downloads. The body is gzip-compressed
+ * when the request accepts it (e.g. {@code curl --compressed}).
+ */
+final class ExportDownloads {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private ExportDownloads() {
+    }
+
+    static OutputStream start(HttpServletResponse response, ExportService.Format format, String name,
+            String acceptEncoding) throws IOException {
+        String extension = format == ExportService.Format.CSV ? "csv" : "ndjson";
+        response.setContentType(format == ExportService.Format.CSV
+                ? "text/csv;charset=UTF-8"
+                : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(name + "-" + LocalDate.now() + "." + extension)
+                .build()
+                .toString());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        OutputStream out = response.getOutputStream();
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        }
+        return out;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,78 @@
+package com.greencoin.controller;
+
+import com.greencoin.service.ImageDerivativeService;
+import com.greencoin.service.ReportImageService;
+import com.greencoin.storage.BlobStore;
+import com.greencoin.storage.ImageVariant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Image Controller
+ *
+ * Serves report images from the blob store. Images are addressed by their
+ * SHA-256 digest, so responses never change and can be cached forever.
+ */
+@RestController
+@RequestMapping("/api/images")
+@RequiredArgsConstructor
+public class ImageController {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final BlobStore blobStore;
+    private final ReportImageService imageService;
+    private final ImageDerivativeService derivativeService;
+
+    /**
+     * Get image content by digest
+     */
+    @GetMapping("/{digest}")
+    public ResponseEntity<Resource> getImage(@PathVariable String digest) {
+        return blobStore.get(digest)
+                .map(image -> ResponseEntity.ok()
+                        .cacheControl(IMMUTABLE)
+                        .eTag(digest)
+                        .contentType(imageService.mediaTypeOf(image))
+                        .body(image))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get a resized derivative (e.g. thumb). Until the derivative has been
+     * generated the original is served with a short cache lifetime, and the
+     * derivatives are queued again in case the first job was dropped.
+     */
+    @GetMapping("/{digest}/{variant}")
+    public ResponseEntity<Resource> getImageVariant(@PathVariable String digest, @PathVariable String variant) {
+        ImageVariant imageVariant = ImageVariant.fromKey(variant);
+        if (imageVariant == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return blobStore.getVariant(digest, imageVariant.getKey())
+                .map(image -> ResponseEntity.ok()
+                        .cacheControl(IMMUTABLE)
+                        .eTag(digest + "." + imageVariant.getKey())
+                        .contentType(MediaType.IMAGE_JPEG)
+                        .body(image))
+                .orElseGet(() -> blobStore.get(digest)
+                        .map(image -> {
+                            derivativeService.generateAsync(digest);
+                            return ResponseEntity.ok()
+                                    .cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)))
+                                    .contentType(imageService.mediaTypeOf(image))
+                                    .body(image);
+                        })
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.greencoin.controller;
+
+import com.greencoin.dto.PositionUpdate;
+import com.greencoin.dto.TileSubscription;
+import com.greencoin.service.ReportTileTopics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+/**
+ * STOMP endpoint for geotile subscriptions
+ *
+ * Clients send their position to /app/reports/position whenever it changes
+ * and receive the tile topics to subscribe to on /user/queue/tiles. The reply
+ * goes to the sending session only, which also works before login.
+ */
+@Controller
+@RequiredArgsConstructor
+public class ReportTileController {
+
+    private final ReportTileTopics tileTopics;
+
+    @MessageMapping("/reports/position")
+    @SendToUser(destinations = "/queue/tiles", broadcast = false)
+    public TileSubscription updatePosition(PositionUpdate position) {
+        if (Math.abs(position.latitude()) > 90 || Math.abs(position.longitude()) > 180) {
+            throw new IllegalStateException("Invalid position");
+        }
+        return new TileSubscription(tileTopics.topicsAround(position.latitude(), position.longitude()));
+    }
+}
@@ -1,20 +1,53 @@
 package com.greencoin.controller;
 
 import com.greencoin.dto.CreateReportRequest;
+import com.greencoin.dto.CursorPage;
+import com.greencoin.dto.PageCursor;
+import com.greencoin.dto.ReportHeatmap;
+import com.greencoin.dto.ReportImportResult;
+import com.greencoin.dto.ReportChanges;
+import com.greencoin.dto.WasteReportCard;
 import com.greencoin.dto.WasteReportResponse;
+import com.greencoin.metrics.ReportMetrics;
 import com.greencoin.model.User;
 import com.greencoin.model.WasteReport;
+import com.greencoin.security.AuthenticatedUser;
+import com.greencoin.service.ExportService;
+import com.greencoin.service.ReportImageService;
+import com.greencoin.service.ReportImportService;
+import com.greencoin.service.ReportRollupService;
 import com.greencoin.service.UserService;
 import com.greencoin.service.WasteReportService;
+import com.greencoin.storage.ImageReferences;
+import com.greencoin.storage.ImageVariant;
+import com.greencoin.storage.StoredBlob;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -30,89 +63,241 @@ public class WasteReportController {
 
     private final WasteReportService reportService;
     private final UserService userService;
+    private final ReportImageService imageService;
+    private final ReportImportService importService;
+    private final ExportService exportService;
+    private final ReportRollupService rollupService;
+    private final ReportMetrics reportMetrics;
+    private final Validator validator;
+
+    @Value("${reports.nearby.max-radius-km:50}")
+    private double maxNearbyRadiusKm;
 
     /**
      * Create new waste report (CITIZEN only)
      */
-    @PostMapping
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<WasteReportResponse> createReport(
             Authentication authentication,
             @Valid @RequestBody CreateReportRequest request) {
 
         String firebaseUid = authentication.getName();
+        long start = System.nanoTime();
 
         WasteReport report = reportService.createReport(request, firebaseUid);
+        reportMetrics.recordCreate("json", request.getImageUrl() == null ? 0 : request.getImageUrl().length(),
+                System.nanoTime() - start);
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(mapToResponse(report));
     }
 
     /**
-     * Get all available reports (OPEN status)
+     * Create new waste report with the photo as a multipart file (CITIZEN only)
+     * The image part is streamed into storage, so it is never held in memory.
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<WasteReportResponse> createReportWithImage(
+            Authentication authentication,
+            @RequestParam BigDecimal latitude,
+            @RequestParam BigDecimal longitude,
+            @RequestParam(required = false) String description,
+            @RequestPart("image") MultipartFile image) throws IOException {
+
+        String firebaseUid = authentication.getName();
+        long start = System.nanoTime();
+
+        // Validated before the image is stored; imageUrl is only known after that
+        CreateReportRequest request = new CreateReportRequest(latitude, longitude, null, description);
+        Set<ConstraintViolation<CreateReportRequest>> violations = validator.validate(request).stream()
+                .filter(violation -> !violation.getPropertyPath().toString().equals("imageUrl"))
+                .collect(Collectors.toSet());
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        StoredBlob blob;
+        try (InputStream in = image.getInputStream()) {
+            blob = imageService.storeBlob(in);
+        }
+        request.setImageUrl(ImageReferences.of(blob.digest()));
+
+        WasteReport report;
+        try {
+            report = reportService.createReport(request, firebaseUid);
+        } catch (RuntimeException e) {
+            imageService.discard(blob);
+            throw e;
+        }
+        reportMetrics.recordCreate("multipart", image.getSize(), System.nanoTime() - start);
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(mapToResponse(report));
+    }
+
+    /**
+     * Bulk import reports from NDJSON or CSV (AUTHORITY only)
+     * Rows are streamed and saved in batches; the response counts imported
+     * rows and lists rejected ones with their line numbers.
+     */
+    @PostMapping(value = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, "text/csv" })
+    public ResponseEntity<ReportImportResult> importReports(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+
+        if (!principal.hasRole(User.UserRole.AUTHORITY)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        User reporter = userService.getUserByFirebaseUid(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        ReportImportService.Format format = contentType.getSubtype().equals("csv")
+                ? ReportImportService.Format.CSV
+                : ReportImportService.Format.NDJSON;
+        ReportImportResult result = importService.importReports(body,
+                contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8, format, reporter);
+
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Export reports as CSV or NDJSON (AUTHORITY only), in id order
+     * Optional filters: reportedAt from/to (days, both included) and status
+     * (repeatable). Streamed from a database cursor; gzip with Accept-Encoding.
+     */
+    @GetMapping("/export")
+    public void exportReports(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<WasteReport.ReportStatus> status,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+
+        if (!principal.hasRole(User.UserRole.AUTHORITY)) {
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            return;
+        }
+        ExportService.Format exportFormat = ExportService.Format.of(format);
+        ExportService.Filter filter = ExportService.Filter.ofDays(from, to, status);
+
+        OutputStream out = ExportDownloads.start(response, exportFormat, "reports", acceptEncoding);
+        exportService.exportReports(filter, exportFormat, out);
+    }
+
+    /**
+     * Report counts per map cell in a viewport (AUTHORITY only)
+     * Counts reports made in [from, to), default the last 24 hours and widened
+     * to whole hours or days, by current status; read from the hourly or daily
+     * rollups, never from the reports.
+     */
+    @GetMapping("/heatmap")
+    public ResponseEntity<ReportHeatmap> getHeatmap(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam double south,
+            @RequestParam double west,
+            @RequestParam double north,
+            @RequestParam double east,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Double cellDegrees,
+            @RequestParam(required = false) List<WasteReport.ReportStatus> status) {
+
+        if (!principal.hasRole(User.UserRole.AUTHORITY)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        double size = cellDegrees != null ? cellDegrees : rollupService.getCellDegrees();
+
+        return ResponseEntity.ok(rollupService.heatmap(south, west, north, east, start, end, size, status));
+    }
+
+    /**
+     * Get available reports (OPEN status), newest first
      * Used by collectors to see pickupable reports
+     * Pass the X-Next-Cursor header value as cursor to fetch the next page
      */
     @GetMapping("/available")
-    public ResponseEntity<List<WasteReportResponse>> getAvailableReports() {
-        List<WasteReport> reports = reportService.getAvailableReports();
-        List<WasteReportResponse> response = reports.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<WasteReportResponse>> getAvailableReports(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
 
-        return ResponseEntity.ok(response);
+        CursorPage<WasteReportCard> page = reportService.getAvailableReports(
+                PageCursor.decode(cursor), CursorPage.checkLimit(limit));
+
+        return pageResponse(page);
     }
 
     /**
-     * Get nearby reports (within ~5km)
+     * Reports created or changed since the given change sequence value
+     * Used by dashboards to catch up after a reconnect; without since, or when
+     * too much changed, returns fullReload=true and the current sequence value
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ReportChanges<WasteReportResponse>> getChanges(
+            @RequestParam(required = false) Long since) {
+        return ResponseEntity.ok(reportService.getChangesSince(since).map(WasteReportController::mapToListResponse));
+    }
+
+    /**
+     * Get nearby OPEN reports within radiusKm, nearest first
      */
     @GetMapping("/nearby")
     public ResponseEntity<List<WasteReportResponse>> getNearbyReports(
-            @RequestParam java.math.BigDecimal latitude,
-            @RequestParam java.math.BigDecimal longitude) {
+            @RequestParam BigDecimal latitude,
+            @RequestParam BigDecimal longitude,
+            @RequestParam(defaultValue = "10") double radiusKm) {
 
-        List<WasteReport> reports = reportService.getNearbyReports(latitude.doubleValue(), longitude.doubleValue());
+        if (radiusKm <= 0 || radiusKm > maxNearbyRadiusKm) {
+            throw new IllegalStateException("radiusKm must be between 0 and " + maxNearbyRadiusKm);
+        }
+
+        List<WasteReportCard> reports = reportService.getNearbyReports(
+                latitude.doubleValue(), longitude.doubleValue(), radiusKm);
         List<WasteReportResponse> response = reports.stream()
-                .map(this::mapToResponse)
+                .map(WasteReportController::mapToListResponse)
                 .collect(Collectors.toList());
 
         return ResponseEntity.ok(response);
     }
 
     /**
-     * Get current user's reports (reporter view)
+     * Get current user's reports (reporter view), newest first
      */
     @GetMapping("/my-reports")
-    public ResponseEntity<List<WasteReportResponse>> getMyReports(Authentication authentication) {
-        String firebaseUid = authentication.getName();
-        User user = userService.getUserByFirebaseUid(firebaseUid)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public ResponseEntity<List<WasteReportResponse>> getMyReports(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        Long userId = userService.getUserId(principal);
 
-        List<WasteReport> reports = reportService.getReportsByUser(user.getId());
-        List<WasteReportResponse> response = reports.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        CursorPage<WasteReportCard> page = reportService.getReportsByUser(
+                userId, PageCursor.decode(cursor), CursorPage.checkLimit(limit));
 
-        return ResponseEntity.ok(response);
+        return pageResponse(page);
     }
 
     /**
-     * Get reports picked by collector (COLLECTOR only)
+     * Get reports picked by collector (COLLECTOR only), newest first
      */
     @GetMapping("/my-pickups")
-    public ResponseEntity<List<WasteReportResponse>> getMyPickups(Authentication authentication) {
-        String firebaseUid = authentication.getName();
-        User user = userService.getUserByFirebaseUid(firebaseUid)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public ResponseEntity<List<WasteReportResponse>> getMyPickups(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        Long userId = userService.getUserId(principal);
 
-        if (!user.hasRole(User.UserRole.COLLECTOR)) {
+        if (!principal.hasRole(User.UserRole.COLLECTOR)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<WasteReport> reports = reportService.getReportsByCollector(user.getId());
-        List<WasteReportResponse> response = reports.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        CursorPage<WasteReportCard> page = reportService.getReportsByCollector(
+                userId, PageCursor.decode(cursor), CursorPage.checkLimit(limit));
 
-        return ResponseEntity.ok(response);
+        return pageResponse(page);
     }
 
     /**
@@ -145,7 +330,7 @@ public class WasteReportController {
     }
 
     /**
-     * Get single report details
+     * Get single report details (the only response with the full-size image)
      */
     @GetMapping("/{reportId}")
     public ResponseEntity<WasteReportResponse> getReport(@PathVariable Long reportId) {
@@ -154,16 +339,28 @@ public class WasteReportController {
     }
 
     /**
-     * Map entity to DTO
+     * List response for one page, with the next cursor in a header
+     */
+    private ResponseEntity<List<WasteReportResponse>> pageResponse(CursorPage<WasteReportCard> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.map(WasteReportController::mapToListResponse).items());
+    }
+
+    /**
+     * Map entity to DTO with the full-size image.
+     * Static and package-private so the JMH benchmarks can call the mappers directly.
      */
-    private WasteReportResponse mapToResponse(WasteReport report) {
+    static WasteReportResponse mapToResponse(WasteReport report) {
         return WasteReportResponse.builder()
                 .id(report.getId())
                 .reporterId(report.getReporter().getId())
                 .reporterName(report.getReporter().getDisplayName())
                 .latitude(report.getLatitude())
                 .longitude(report.getLongitude())
-                .imageUrl(report.getImageUrl())
+                .imageUrl(ImageReferences.toPublicUrl(report.getImageUrl()))
                 .description(report.getDescription())
                 .status(report.getStatus().name())
                 .coinsAwarded(report.getCoinsAwarded())
@@ -173,4 +370,24 @@ public class WasteReportController {
                 .collectedAt(report.getCollectedAt())
                 .build();
     }
+
+    /**
+     * Map list projection to DTO, pointing at the thumbnail
+     */
+    static WasteReportResponse mapToListResponse(WasteReportCard card) {
+        return WasteReportResponse.builder()
+                .id(card.id())
+                .reporterId(card.reporterId())
+                .reporterName(card.reporterName())
+                .latitude(card.latitude())
+                .longitude(card.longitude())
+                .imageUrl(ImageReferences.toPublicUrl(card.imageUrl(), ImageVariant.THUMB))
+                .status(card.status().name())
+                .coinsAwarded(card.coinsAwarded())
+                .collectorId(card.collectorId())
+                .collectorName(card.collectorName())
+                .reportedAt(card.reportedAt())
+                .collectedAt(card.collectedAt())
+                .build();
+    }
 }
@@ -0,0 +1,44 @@
+package com.greencoin.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list.
+ *
+ * @param items      rows on this page
+ * @param nextCursor cursor for the following page, or null on the last page
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    /** Response header carrying the cursor of the next page. */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final int MAX_LIMIT = 200;
+
+    /**
+     * Validate a client-supplied page size.
+     */
+    public static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalStateException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+
+    /**
+     * Build a page from a query that fetched up to {@code limit + 1} rows; the
+     * extra row only signals that another page exists.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)).encode());
+    }
+}
@@ -0,0 +1,40 @@
+package com.greencoin.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a list ordered by {@code (timestamp DESC, id DESC)}.
+ *
+ * Clients only see the opaque {@link #encode()}d form and pass it back
+ * unchanged to fetch the next page.
+ */
+public record PageCursor(LocalDateTime timestamp, Long id) {
+
+    /** Position before the first row of any list. */
+    public static final PageCursor START = new PageCursor(LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE);
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a client-supplied cursor; a missing cursor means the first page.
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalStateException("Invalid cursor");
+        }
+    }
+}
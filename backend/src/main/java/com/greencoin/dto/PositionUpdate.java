@@ -0,0 +1,7 @@
+package com.greencoin.dto;
+
+/**
+ * Position a WebSocket client sends to /app/reports/position.
+ */
+public record PositionUpdate(double latitude, double longitude) {
+}
@@ -0,0 +1,23 @@
+package com.greencoin.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reports created or changed since a client's last sync.
+ *
+ * @param items      changed reports, in any status (clients drop ones no longer OPEN)
+ * @param latestSeq  sync position to pass as {@code since} next time
+ * @param fullReload true when the client must reload the full list instead,
+ *                   because it had no baseline or too much changed
+ */
+public record ReportChanges<T>(List<T> items, long latestSeq, boolean fullReload) {
+
+    public static <T> ReportChanges<T> fullReload(long latestSeq) {
+        return new ReportChanges<>(List.of(), latestSeq, true);
+    }
+
+    public <R> ReportChanges<R> map(Function<T, R> mapper) {
+        return new ReportChanges<>(items.stream().map(mapper).toList(), latestSeq, fullReload);
+    }
+}
@@ -0,0 +1,32 @@
+package com.greencoin.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report counts per map cell for a viewport and time window, by current status.
+ *
+ * @param granularity HOUR or DAY, the rollups the counts were read from
+ * @param cellDegrees side of each cell
+ * @param from        start of the first hour or day counted
+ * @param to          end of the last hour or day counted (exclusive)
+ * @param cells       cells with at least one report; others are omitted
+ * @param totals      counts per status over all cells
+ */
+public record ReportHeatmap(
+        String granularity,
+        double cellDegrees,
+        LocalDateTime from,
+        LocalDateTime to,
+        List<Cell> cells,
+        Map<String, Long> totals) {
+
+    /**
+     * @param south  latitude of the cell's southern edge
+     * @param west   longitude of the cell's western edge
+     * @param counts reports per status
+     */
+    public record Cell(double south, double west, long total, Map<String, Long> counts) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.greencoin.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk report import.
+ *
+ * @param imported        rows saved as OPEN reports
+ * @param failed          rows rejected
+ * @param errors          why rows were rejected; at most
+ *                        {@code reports.import.max-errors} of them
+ * @param errorsTruncated true when more rows failed than {@code errors} lists
+ */
+public record ReportImportResult(long imported, long failed, List<RowError> errors, boolean errorsTruncated) {
+
+    /**
+     * @param line line the row starts on; the CSV header is line 1
+     */
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.greencoin.dto;
+
+import com.greencoin.model.WasteReport;
+
+import java.math.BigDecimal;
+
+/**
+ * Id, coordinates and status of a report, used to (re)build the in-memory spatial index.
+ */
+public record ReportLocation(Long id, BigDecimal latitude, BigDecimal longitude, WasteReport.ReportStatus status) {
+}
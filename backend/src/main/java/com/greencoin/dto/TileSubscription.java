@@ -0,0 +1,9 @@
+package com.greencoin.dto;
+
+import java.util.List;
+
+/**
+ * Tile topics a client should be subscribed to for its current position.
+ */
+public record TileSubscription(List<String> topics) {
+}
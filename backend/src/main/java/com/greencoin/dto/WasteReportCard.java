@@ -0,0 +1,28 @@
+package com.greencoin.dto;
+
+import com.greencoin.model.WasteReport;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Slim projection of a waste report for list views.
+ *
+ * Selected with a JPQL constructor expression so list queries never read the
+ * description or legacy Base64 image data. {@code imageUrl} is only populated
+ * when it holds a short blob reference.
+ */
+public record WasteReportCard(
+        Long id,
+        Long reporterId,
+        String reporterName,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        String imageUrl,
+        WasteReport.ReportStatus status,
+        Integer coinsAwarded,
+        Long collectorId,
+        String collectorName,
+        LocalDateTime reportedAt,
+        LocalDateTime collectedAt) {
+}
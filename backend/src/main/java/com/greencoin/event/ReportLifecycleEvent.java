@@ -0,0 +1,42 @@
+package com.greencoin.event;
+
+import com.greencoin.model.WasteReport;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link com.greencoin.service.WasteReportService} whenever a
+ * report is created or changes status. Listeners that must only see committed
+ * state use {@code @TransactionalEventListener}.
+ */
+public record ReportLifecycleEvent(
+        Type type,
+        Long reportId,
+        WasteReport.ReportStatus previousStatus,
+        WasteReport.ReportStatus status,
+        double latitude,
+        double longitude,
+        String imageUrl,
+        LocalDateTime reportedAt) {
+
+    public enum Type {
+        CREATED,
+        PICKED,
+        COLLECTED
+    }
+
+    public static ReportLifecycleEvent created(WasteReport report) {
+        return of(Type.CREATED, report, null);
+    }
+
+    public static ReportLifecycleEvent statusChanged(Type type, WasteReport report,
+            WasteReport.ReportStatus previousStatus) {
+        return of(type, report, previousStatus);
+    }
+
+    private static ReportLifecycleEvent of(Type type, WasteReport report, WasteReport.ReportStatus previousStatus) {
+        return new ReportLifecycleEvent(type, report.getId(), previousStatus, report.getStatus(),
+                report.getLatitude().doubleValue(), report.getLongitude().doubleValue(),
+                report.getImageUrl(), report.getReportedAt());
+    }
+}
@@ -0,0 +1,11 @@
+package com.greencoin.exception;
+
+/**
+ * Thrown when an uploaded report image exceeds the configured size limit.
+ */
+public class ImageTooLargeException extends InvalidImageException {
+
+    public ImageTooLargeException(long maxBytes) {
+        super("Image exceeds the maximum size of " + maxBytes + " bytes");
+    }
+}
@@ -0,0 +1,15 @@
+package com.greencoin.exception;
+
+/**
+ * Thrown when an uploaded report image cannot be accepted.
+ */
+public class InvalidImageException extends RuntimeException {
+
+    public InvalidImageException(String message) {
+        super(message);
+    }
+
+    public InvalidImageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.greencoin.exception;
+
+/**
+ * Thrown when an ID token is malformed, has a bad signature, has expired or
+ * was revoked.
+ */
+public class InvalidTokenException extends Exception {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+
+    public InvalidTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.greencoin.exception;
+
+/**
+ * Thrown when a report is no longer in the status a transition requires,
+ * e.g. another collector claimed it first.
+ */
+public class ReportConflictException extends RuntimeException {
+
+    public ReportConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,112 @@
+package com.greencoin.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size latitude/longitude grid.
+ *
+ * The world is split into square cells of {@code cellDegrees} on each side.
+ * A cell is identified by its row (from the south pole) and column (from the
+ * antimeridian), packed into a single {@code long} key.
+ */
+public final class GeoGrid {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+
+    public GeoGrid(double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 90) {
+            throw new IllegalArgumentException("Cell size must be in (0, 90] degrees: " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180.0 / cellDegrees);
+        this.columns = (int) Math.ceil(360.0 / cellDegrees);
+    }
+
+    public double getCellDegrees() {
+        return cellDegrees;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int row(double latitude) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((latitude + 90.0) / cellDegrees)));
+    }
+
+    public int column(double longitude) {
+        int column = (int) Math.floor((longitude + 180.0) / cellDegrees);
+        return Math.floorMod(column, columns);
+    }
+
+    public long cellKey(double latitude, double longitude) {
+        return key(row(latitude), column(longitude));
+    }
+
+    public static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    public static int rowOf(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int columnOf(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Keys of every cell that may hold a point within {@code radiusKm} of the
+     * given position.
+     */
+    public List<Long> cellsWithin(double latitude, double longitude, double radiusKm) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        int minRow = row(latitude - latSpan);
+        int maxRow = row(latitude + latSpan);
+
+        // Longitude degrees shrink towards the poles; use the widest latitude in range
+        double widestLat = Math.min(90.0, Math.max(Math.abs(latitude - latSpan), Math.abs(latitude + latSpan)));
+        double cosLat = Math.cos(Math.toRadians(widestLat));
+        int columnSpan = cosLat < 1e-6
+                ? columns
+                : (int) Math.ceil(radiusKm / (KM_PER_DEGREE * cosLat) / cellDegrees);
+
+        List<Long> keys = new ArrayList<>();
+        int center = column(longitude);
+        for (int row = minRow; row <= maxRow; row++) {
+            if (columnSpan * 2 + 1 >= columns) {
+                for (int column = 0; column < columns; column++) {
+                    keys.add(key(row, column));
+                }
+            } else {
+                for (int offset = -columnSpan; offset <= columnSpan; offset++) {
+                    keys.add(key(row, Math.floorMod(center + offset, columns)));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Great-circle distance in kilometres (haversine formula).
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                        * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.greencoin.metrics;
+
+import com.greencoin.security.AuthenticatedUser;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Request tags shared by HTTP and domain meters. Values are bounded: endpoint
+ * is the matched route template, role one of the user roles or
+ * ANONYMOUS / UNREGISTERED.
+ */
+public final class MetricTags {
+
+    /** Request attribute holding the caller's role tag, set by the token filter */
+    public static final String ROLE_ATTRIBUTE = MetricTags.class.getName() + ".role";
+
+    public static final String ANONYMOUS = "ANONYMOUS";
+    public static final String UNREGISTERED = "UNREGISTERED";
+    public static final String NONE = "none";
+
+    private MetricTags() {
+    }
+
+    public static String role(AuthenticatedUser principal) {
+        if (principal == null) {
+            return ANONYMOUS;
+        }
+        return principal.role() == null ? UNREGISTERED : principal.role().name();
+    }
+
+    public static String role(HttpServletRequest request) {
+        Object role = request.getAttribute(ROLE_ATTRIBUTE);
+        return role == null ? ANONYMOUS : role.toString();
+    }
+
+    /**
+     * @return endpoint and role of the request being handled on this thread;
+     * "none" / ANONYMOUS outside requests (e.g. on outbox lanes)
+     */
+    public static Tags current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String role = authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal
+                ? role(principal) : ANONYMOUS;
+        return Tags.of("endpoint", currentEndpoint(), "role", role);
+    }
+
+    /**
+     * @return method and route template, e.g. "GET /api/reports/{reportId}",
+     * or "none" when no handler matched
+     */
+    public static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? NONE : request.getMethod() + " " + pattern;
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return NONE;
+        }
+        return endpoint(servletAttributes.getRequest());
+    }
+}
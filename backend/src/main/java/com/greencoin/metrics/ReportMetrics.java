@@ -0,0 +1,90 @@
+package com.greencoin.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Report hot-path meters, tagged with the endpoint and role of the calling
+ * request ({@link MetricTags#current()}).
+ */
+@Component
+public class ReportMetrics {
+
+    private static final double KB = 1024;
+    private static final double MB = 1024 * KB;
+
+    private final Meter.MeterProvider<Timer> createTimer;
+    private final Meter.MeterProvider<DistributionSummary> payloadSummary;
+    private final Meter.MeterProvider<Timer> nearbyTimer;
+    private final Meter.MeterProvider<DistributionSummary> nearbyResults;
+    private final Meter.MeterProvider<Counter> pickConflicts;
+    private final Meter.MeterProvider<Counter> importRows;
+
+    public ReportMetrics(MeterRegistry meterRegistry) {
+        this.createTimer = Timer.builder("reports.create")
+                .description("Time to store a report's photo and save the report")
+                .withRegistry(meterRegistry);
+        this.payloadSummary = DistributionSummary.builder("reports.create.payload")
+                .description("Size of the uploaded photo")
+                .baseUnit("bytes")
+                .serviceLevelObjectives(64 * KB, 256 * KB, MB, 2 * MB, 5 * MB, 10 * MB)
+                .withRegistry(meterRegistry);
+        this.nearbyTimer = Timer.builder("reports.nearby")
+                .description("Time to find nearby OPEN reports")
+                .withRegistry(meterRegistry);
+        this.nearbyResults = DistributionSummary.builder("reports.nearby.results")
+                .description("Reports returned by a nearby query")
+                .withRegistry(meterRegistry);
+        this.pickConflicts = Counter.builder("reports.pick.conflicts")
+                .description("Pick attempts on reports another collector had already claimed")
+                .withRegistry(meterRegistry);
+        this.importRows = Counter.builder("reports.import.rows")
+                .description("Rows read by bulk imports, by outcome")
+                .withRegistry(meterRegistry);
+    }
+
+    /**
+     * Records a successful report creation.
+     *
+     * @param format json (photo as a data URL) or multipart
+     */
+    public void recordCreate(String format, long payloadBytes, long elapsedNanos) {
+        Tags tags = MetricTags.current().and("format", format);
+        payloadSummary.withTags(tags).record(payloadBytes);
+        createTimer.withTags(tags).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param source index, or database while the index is being built
+     */
+    public <T> List<T> recordNearby(String source, Supplier<List<T>> query) {
+        Tags tags = MetricTags.current().and("source", source);
+        long start = System.nanoTime();
+        List<T> results = query.get();
+        nearbyTimer.withTags(tags).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        nearbyResults.withTags(tags).record(results.size());
+        return results;
+    }
+
+    public void pickConflict() {
+        pickConflicts.withTags(MetricTags.current()).increment();
+    }
+
+    /**
+     * @param format ndjson or csv
+     */
+    public void recordImport(String format, long imported, long failed) {
+        Tags tags = MetricTags.current().and("format", format);
+        importRows.withTags(tags.and("outcome", "imported")).increment(imported);
+        importRows.withTags(tags.and("outcome", "failed")).increment(failed);
+    }
+}
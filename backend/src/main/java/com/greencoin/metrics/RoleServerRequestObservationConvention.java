@@ -0,0 +1,23 @@
+package com.greencoin.metrics;
+
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the caller's role to http.server.requests.
+ *
+ * The observation outlives the security filter chain, which clears the
+ * security context on the way out, so the role is read from the request
+ * attribute the token filter leaves behind.
+ */
+@Component
+public class RoleServerRequestObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context)
+                .and("role", MetricTags.role(context.getCarrier()));
+    }
+}
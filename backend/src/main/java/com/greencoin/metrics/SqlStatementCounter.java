@@ -0,0 +1,76 @@
+package com.greencoin.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between
+ * {@link #start()} and {@link #stop()}. Statements on threads that never
+ * started counting (outbox lanes, scheduled jobs) are ignored.
+ *
+ * {@link #startRecording()} also keeps the statements' text, for checking
+ * what a code path queries.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private final ThreadLocal<Counted> counts = new ThreadLocal<>();
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Counted counted = counts.get();
+        if (counted != null) {
+            counted.count++;
+            if (counted.statements != null) {
+                counted.statements.add(sql);
+            }
+        }
+        return sql;
+    }
+
+    public void start() {
+        counts.set(new Counted(null));
+    }
+
+    /**
+     * @return statements counted since {@link #start()}
+     */
+    public int stop() {
+        Counted counted = counts.get();
+        counts.remove();
+        return counted == null ? 0 : counted.count;
+    }
+
+    public void startRecording() {
+        counts.set(new Counted(new ArrayList<>()));
+    }
+
+    /**
+     * @return statements prepared since {@link #startRecording()}, in order
+     */
+    public List<String> stopRecording() {
+        Counted counted = counts.get();
+        counts.remove();
+        return counted == null || counted.statements == null ? List.of() : counted.statements;
+    }
+
+    private static final class Counted {
+        final List<String> statements;
+        int count;
+
+        Counted(List<String> statements) {
+            this.statements = statements;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.greencoin.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Records the SQL statements each request issues ({@code sql.statements}, by
+ * endpoint and role), security filters included. A count that grows with the
+ * page size is an N+1; the load test fails on it (see ../loadtest).
+ * Requests above {@code sql.statements.warn-above} are logged.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class SqlStatementMetrics extends OncePerRequestFilter {
+
+    private final SqlStatementCounter counter;
+    private final Meter.MeterProvider<DistributionSummary> statements;
+
+    @Value("${sql.statements.warn-above:20}")
+    private int warnAbove;
+
+    public SqlStatementMetrics(SqlStatementCounter counter, MeterRegistry meterRegistry) {
+        this.counter = counter;
+        this.statements = DistributionSummary.builder("sql.statements")
+                .description("SQL statements issued while handling one request")
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        counter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int count = counter.stop();
+            String endpoint = MetricTags.endpoint(request);
+            statements.withTags("endpoint", endpoint, "role", MetricTags.role(request)).record(count);
+            if (count > warnAbove) {
+                log.warn("{} issued {} SQL statements", endpoint, count);
+            }
+        }
+    }
+}
@@ -11,12 +11,17 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class CoinTransaction {
+    // Pooled like WasteReport.id. CoinTransactionRepository.applyBalanceChange
+    // inserts through the column default instead, which uses up a whole block
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coin_transaction_id")
+    @SequenceGenerator(name = "coin_transaction_id", sequenceName = "coin_transactions_id_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     private Integer amount;
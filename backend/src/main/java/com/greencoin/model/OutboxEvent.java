@@ -0,0 +1,48 @@
+package com.greencoin.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A WebSocket notification recorded in the same transaction as the change it
+ * describes, and sent by the outbox dispatcher only after that commit.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Events with the same key are published in id order, e.g. "report:42"
+    @Column(nullable = false)
+    private String partitionKey;
+
+    @Column(nullable = false)
+    private String destination;
+
+    // Set for user destinations (/user/{userName}/queue/...)
+    private String userName;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime publishedAt;
+
+    @Builder.Default
+    private Integer attempts = 0;
+
+    // Set by the sweep that re-enqueued the event; other nodes' sweeps skip it until then
+    private LocalDateTime claimedUntil;
+
+    // Dead-lettered: given up on after outbox.dead-letter-after attempts, never sent again
+    private LocalDateTime failedAt;
+}
@@ -7,7 +7,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "users")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
@@ -27,7 +27,10 @@ public class User {
     @Enumerated(EnumType.STRING)
     private UserRole role = UserRole.CITIZEN;
 
+    // Only changed through CoinTransactionRepository.applyBalanceChange,
+    // so saving a stale User can never overwrite the balance
     @Builder.Default
+    @Column(updatable = false)
     private Integer coinBalance = 0;
 
     private String profileImageUrl;
@@ -11,18 +11,26 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class WasteReport {
+    // Ids come from the sequence 50 at a time, so inserts can be JDBC-batched
+    // (IDENTITY needs a round trip per row); see DatabaseMigrationConfig
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "waste_report_id")
+    @SequenceGenerator(name = "waste_report_id", sequenceName = "waste_reports_id_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    // Lazy: list views read projections, single-report paths use WasteReportRepository.findWithUsersById
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "reporter_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User reporter;
 
-    @Column(nullable = false)
+    // DOUBLE PRECISION as in schema.sql, named as Postgres reports it so ddl-auto leaves it alone.
+    // Hibernate's default for BigDecimal, numeric(38,2), rounds positions to ~1km.
+    @Column(nullable = false, columnDefinition = "float8")
     private java.math.BigDecimal latitude;
 
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = "float8")
     private java.math.BigDecimal longitude;
 
     @Column(columnDefinition = "TEXT", nullable = false)
@@ -38,8 +46,10 @@ public class WasteReport {
     @Builder.Default
     private Integer coinsAwarded = 0;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "collector_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User collector;
 
     @Builder.Default
@@ -47,6 +57,14 @@ public class WasteReport {
     private LocalDateTime pickedAt;
     private LocalDateTime collectedAt;
 
+    // Assigned from waste_reports_change_seq by a trigger on every insert and update
+    @Column(insertable = false, updatable = false)
+    private Long changeSeq;
+
+    // Id of the transaction that last wrote the row, set by the same trigger
+    @Column(insertable = false, updatable = false)
+    private Long changeXid;
+
     public enum ReportStatus {
         OPEN,
         PICKING,
@@ -1,9 +1,42 @@
 package com.greencoin.repository;
 
 import com.greencoin.model.CoinTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface CoinTransactionRepository extends JpaRepository<CoinTransaction, Long> {
-    List<CoinTransaction> findByUserIdOrderByCreatedAtDesc(Long userId);
+    @Query("SELECT t FROM CoinTransaction t WHERE t.user.id = :userId " +
+            "AND (t.createdAt < :ts OR (t.createdAt = :ts AND t.id < :id)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<CoinTransaction> findPageByUserId(@Param("userId") Long userId,
+            @Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Adds delta to the user's balance and appends the ledger row in one statement.
+     * The update only matches while the balance stays non-negative, so no row
+     * lock is held across a read and concurrent changes can't be lost.
+     *
+     * @return the new balance, or empty if the user doesn't exist or the balance
+     *         would go negative (nothing is written in that case)
+     */
+    @Transactional
+    @Query(value = "WITH upd AS (" +
+            "UPDATE users SET coin_balance = coin_balance + :delta " +
+            "WHERE id = :userId AND coin_balance + :delta >= 0 " +
+            "RETURNING id, coin_balance), " +
+            "ins AS (" +
+            "INSERT INTO coin_transactions (user_id, amount, transaction_type, reference_id, reference_type, created_at) " +
+            "SELECT id, :delta, :type, :referenceId, :referenceType, :createdAt FROM upd " +
+            "RETURNING id) " +
+            "SELECT upd.coin_balance FROM upd, ins", nativeQuery = true)
+    Optional<Integer> applyBalanceChange(@Param("userId") Long userId, @Param("delta") int delta,
+            @Param("type") String type, @Param("referenceId") Long referenceId,
+            @Param("referenceType") String referenceType, @Param("createdAt") LocalDateTime createdAt);
 }
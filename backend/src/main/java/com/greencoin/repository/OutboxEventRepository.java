@@ -0,0 +1,66 @@
+package com.greencoin.repository;
+
+import com.greencoin.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Claims up to {@code limit} unpublished events recorded before {@code before}
+     * that no sweep holds a claim on at {@code now}, in no particular order.
+     * Dead-lettered events are never claimed. SKIP LOCKED keeps two nodes
+     * sweeping at once from claiming the same rows.
+     */
+    @Transactional
+    @Query(value = "UPDATE outbox_events SET claimed_until = :claimedUntil WHERE id IN (" +
+            "SELECT id FROM outbox_events WHERE published_at IS NULL AND failed_at IS NULL AND created_at < :before " +
+            "AND (claimed_until IS NULL OR claimed_until < :now) ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *", nativeQuery = true)
+    List<OutboxEvent> claimUnpublishedBefore(@Param("before") LocalDateTime before, @Param("now") LocalDateTime now,
+            @Param("claimedUntil") LocalDateTime claimedUntil, @Param("limit") int limit);
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL AND e.failedAt IS NULL " +
+            "AND e.partitionKey = :partitionKey ORDER BY e.id")
+    List<OutboxEvent> findUnpublishedByPartitionKey(@Param("partitionKey") String partitionKey, Pageable pageable);
+
+    long countByPublishedAtIsNullAndFailedAtIsNull();
+
+    long countByFailedAtIsNotNull();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt, e.attempts = e.attempts + :attempts " +
+            "WHERE e.id = :id")
+    int markPublished(@Param("id") Long id, @Param("publishedAt") LocalDateTime publishedAt,
+            @Param("attempts") int attempts);
+
+    /**
+     * Adds failed attempts, and dead-letters the event (sets failed_at) once
+     * it has had {@code deadLetterAfter} in total.
+     *
+     * @return true if the event is dead-lettered now
+     */
+    @Transactional
+    @Query(value = "UPDATE outbox_events SET attempts = attempts + :attempts, " +
+            "failed_at = CASE WHEN attempts + :attempts >= :deadLetterAfter THEN CAST(:now AS TIMESTAMP) END " +
+            "WHERE id = :id RETURNING failed_at IS NOT NULL", nativeQuery = true)
+    boolean recordFailedAttempts(@Param("id") Long id, @Param("attempts") int attempts,
+            @Param("deadLetterAfter") int deadLetterAfter, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.failedAt < :before")
+    int deleteFailedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,18 +1,111 @@
 package com.greencoin.repository;
 
+import com.greencoin.dto.ReportLocation;
+import com.greencoin.dto.WasteReportCard;
 import com.greencoin.model.WasteReport;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface WasteReportRepository extends JpaRepository<WasteReport, Long> {
-    List<WasteReport> findByStatus(WasteReport.ReportStatus status);
 
-    List<WasteReport> findByReporterId(Long reporterId);
+    /**
+     * Columns selected for list views. Only a reference's length of image_url
+     * is read (sha256: and 64 hex digits), so legacy Base64 values are never
+     * fetched whole; description is never read.
+     */
+    String CARD_SELECT = "SELECT new com.greencoin.dto.WasteReportCard(" +
+            "r.id, rep.id, rep.displayName, r.latitude, r.longitude, " +
+            "CASE WHEN SUBSTRING(r.imageUrl, 1, 7) = 'sha256:' THEN SUBSTRING(r.imageUrl, 1, 71) END, " +
+            "r.status, r.coinsAwarded, col.id, col.displayName, r.reportedAt, r.collectedAt) " +
+            "FROM WasteReport r LEFT JOIN r.reporter rep LEFT JOIN r.collector col ";
+
+    /**
+     * Keyset condition and order shared by the paginated list queries, backed
+     * by the (..., reported_at, id) composite indexes.
+     */
+    String BEFORE_CURSOR = "AND (r.reportedAt < :ts OR (r.reportedAt = :ts AND r.id < :id)) " +
+            "ORDER BY r.reportedAt DESC, r.id DESC";
+
+    /**
+     * The report with reporter and collector joined in, for paths that map or
+     * notify on the full entity.
+     */
+    @EntityGraph(attributePaths = {"reporter", "collector"})
+    Optional<WasteReport> findWithUsersById(Long id);
+
+    @Query(CARD_SELECT + "WHERE r.status = :status " + BEFORE_CURSOR)
+    List<WasteReportCard> findCardsByStatus(@Param("status") WasteReport.ReportStatus status,
+            @Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE rep.id = :reporterId " + BEFORE_CURSOR)
+    List<WasteReportCard> findCardsByReporterId(@Param("reporterId") Long reporterId,
+            @Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE col.id = :collectorId " + BEFORE_CURSOR)
+    List<WasteReportCard> findCardsByCollectorId(@Param("collectorId") Long collectorId,
+            @Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE r.id IN :ids AND r.status = :status")
+    List<WasteReportCard> findCardsByIdInAndStatus(@Param("ids") Collection<Long> ids,
+            @Param("status") WasteReport.ReportStatus status);
+
+    @Query("SELECT new com.greencoin.dto.ReportLocation(r.id, r.latitude, r.longitude, r.status) " +
+            "FROM WasteReport r WHERE r.status = :status")
+    List<ReportLocation> findLocationsByStatus(@Param("status") WasteReport.ReportStatus status);
+
+    long countByStatus(WasteReport.ReportStatus status);
+
+    /**
+     * Like {@link #findCardsChangedSince}, for keeping the spatial index current
+     */
+    @Query("SELECT new com.greencoin.dto.ReportLocation(r.id, r.latitude, r.longitude, r.status) " +
+            "FROM WasteReport r WHERE r.changeXid >= :since")
+    List<ReportLocation> findLocationsChangedSince(@Param("since") long since, Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE r.status = com.greencoin.model.WasteReport$ReportStatus.OPEN AND " +
+            "(6371 * acos(cos(radians(:lat)) * cos(radians(r.latitude)) * cos(radians(r.longitude) - radians(:lon)) " +
+            "+ sin(radians(:lat)) * sin(radians(r.latitude)))) < :radiusInKm")
+    List<WasteReportCard> findNearbyCards(@Param("lat") Double lat, @Param("lon") Double lon,
+            @Param("radiusInKm") Double radiusInKm);
+
+    /**
+     * Reports last written by a transaction with an id of at least {@code since},
+     * oldest change first; backed by idx_waste_reports_change_xid.
+     */
+    @Query(CARD_SELECT + "WHERE r.changeXid >= :since ORDER BY r.changeSeq")
+    List<WasteReportCard> findCardsChangedSince(@Param("since") long since, Pageable pageable);
 
-    List<WasteReport> findByCollectorId(Long collectorId);
+    /**
+     * Oldest transaction id still in progress (or the next one to be assigned):
+     * every write by an older transaction has committed or rolled back.
+     */
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", nativeQuery = true)
+    long findChangeWatermark();
 
-    @Query(value = "SELECT * FROM waste_reports WHERE status = 'OPEN' AND " +
-            "(6371 * acos(cos(radians(?1)) * cos(radians(latitude)) * cos(radians(longitude) - radians(?2)) + sin(radians(?1)) * sin(radians(latitude)))) < ?3", nativeQuery = true)
-    List<WasteReport> findNearby(Double lat, Double lon, Double radiusInKm);
+    /**
+     * Compare-and-set claim: only one caller can move an OPEN report to PICKING.
+     * The winner keeps the row locked until its transaction commits. A plain
+     * {@code UPDATE ... WHERE status = 'OPEN'} would make every loser wait for
+     * that lock and then match nothing. {@code SKIP LOCKED} makes losers return
+     * at once instead. A report locked by any other writer also counts as
+     * taken, and if the winner rolls back, the report is OPEN again for the next
+     * attempt.
+     *
+     * @return 1 if this caller claimed the report, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "UPDATE waste_reports SET status = 'PICKING', collector_id = :collectorId, picked_at = :pickedAt " +
+            "WHERE id = (SELECT id FROM waste_reports WHERE id = :id AND status = 'OPEN' FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true)
+    int claimOpenReport(@Param("id") Long id, @Param("collectorId") Long collectorId,
+            @Param("pickedAt") LocalDateTime pickedAt);
 }
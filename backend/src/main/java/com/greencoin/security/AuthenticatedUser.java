@@ -0,0 +1,24 @@
+package com.greencoin.security;
+
+import com.greencoin.model.User;
+
+import java.security.Principal;
+
+/**
+ * Principal set by {@link FirebaseTokenFilter}.
+ * userId and role are null until the user has registered.
+ */
+public record AuthenticatedUser(String uid, String email, Long userId, User.UserRole role) implements Principal {
+
+    /**
+     * @return the Firebase UID, so authentication.getName() keeps returning it
+     */
+    @Override
+    public String getName() {
+        return uid;
+    }
+
+    public boolean hasRole(User.UserRole role) {
+        return this.role == role;
+    }
+}
@@ -0,0 +1,39 @@
+package com.greencoin.security;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import com.greencoin.exception.InvalidTokenException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies Firebase ID tokens with the Firebase Admin SDK.
+ */
+@Component
+@ConditionalOnProperty(name = "security.token-verifier", havingValue = "firebase", matchIfMissing = true)
+public class FirebaseIdTokenDecoder implements IdTokenDecoder {
+
+    @Value("${security.token-cache.check-revoked:true}")
+    private boolean checkRevoked;
+
+    @Override
+    public VerifiedToken decode(String idToken) throws InvalidTokenException {
+        FirebaseToken decodedToken;
+        try {
+            // This call requires FirebaseApp to be initialized
+            decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken, checkRevoked);
+        } catch (FirebaseAuthException e) {
+            throw new InvalidTokenException(e.getMessage(), e);
+        }
+        String email = decodedToken.getEmail();
+
+        if (email == null) {
+            email = (String) decodedToken.getClaims().get("email");
+        }
+
+        long expiresAt = ((Number) decodedToken.getClaims().get("exp")).longValue();
+        return new VerifiedToken(decodedToken.getUid(), email, expiresAt);
+    }
+}
@@ -1,11 +1,11 @@
 package com.greencoin.security;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseToken;
+import com.greencoin.metrics.MetricTags;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,8 +17,18 @@ import java.util.ArrayList;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class FirebaseTokenFilter extends OncePerRequestFilter {
 
+    private final FirebaseTokenVerifier tokenVerifier;
+    private final MetricsScrapeToken metricsScrapeToken;
+
+    /** The scraper's token is not a Firebase token; verifying it would only log a failure per scrape */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return metricsScrapeToken.isScrapeRequest(request);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -27,23 +37,17 @@ public class FirebaseTokenFilter extends OncePerRequestFilter {
         log.info("Incoming request to: {} | Authorization header present: {}",
                 request.getRequestURI(), (header != null));
 
-        if (header != null && header.toLowerCase().startsWith("bearer ")) {
-            String idToken = header.substring(7).trim();
+        String idToken = bearerToken(header);
+        if (idToken != null) {
             try {
-                // This call requires FirebaseApp to be initialized
-                FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken);
-                String uid = decodedToken.getUid();
-                String email = decodedToken.getEmail();
+                VerifiedToken token = tokenVerifier.verify(idToken);
+                AuthenticatedUser principal = token.toPrincipal();
 
-                if (email == null) {
-                    email = (String) decodedToken.getClaims().get("email");
-                }
-
-                log.info("Successfully authenticated Firebase user: {}", email);
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        uid, email, new ArrayList<>());
+                        principal, token.email(), new ArrayList<>());
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                request.setAttribute(MetricTags.ROLE_ATTRIBUTE, MetricTags.role(principal));
             } catch (Exception e) {
                 log.error("Firebase token verification failed. Error: {}", e.getMessage());
                 SecurityContextHolder.clearContext();
@@ -54,4 +58,14 @@ public class FirebaseTokenFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * @return the token from a "Bearer &lt;token&gt;" header value, or null
+     */
+    public static String bearerToken(String header) {
+        if (header != null && header.toLowerCase().startsWith("bearer ")) {
+            return header.substring(7).trim();
+        }
+        return null;
+    }
 }
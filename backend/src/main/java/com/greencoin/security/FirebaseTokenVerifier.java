@@ -0,0 +1,42 @@
+package com.greencoin.security;
+
+import com.greencoin.exception.InvalidTokenException;
+import com.greencoin.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies Firebase ID tokens for both HTTP requests and STOMP connections,
+ * going through {@link VerifiedTokenCache} first. The check itself is done by
+ * the configured {@link IdTokenDecoder}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FirebaseTokenVerifier {
+
+    private final VerifiedTokenCache tokenCache;
+    private final UserService userService;
+    private final IdTokenDecoder tokenDecoder;
+
+    /**
+     * @throws InvalidTokenException if the token is invalid, expired or revoked
+     */
+    public VerifiedToken verify(String idToken) throws InvalidTokenException {
+        // Signature verification (and the revocation lookup) only runs on a cache miss
+        VerifiedToken token = tokenCache.get(idToken);
+        if (token == null) {
+            token = tokenDecoder.decode(idToken);
+            tokenCache.put(idToken, token);
+            log.info("Successfully authenticated Firebase user: {}", token.email());
+        }
+
+        // Role and user id are looked up on every call, from the user cache that is
+        // evicted when the user changes, so a role change applies to live tokens too
+        VerifiedToken verified = token;
+        return userService.getUserByFirebaseUid(verified.uid())
+                .map(verified::withUser)
+                .orElse(verified);
+    }
+}
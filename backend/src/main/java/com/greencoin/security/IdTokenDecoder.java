@@ -0,0 +1,18 @@
+package com.greencoin.security;
+
+import com.greencoin.exception.InvalidTokenException;
+
+/**
+ * Checks an ID token's signature and expiry and reads its claims.
+ *
+ * security.token-verifier selects the implementation:
+ * - firebase (default): {@link FirebaseIdTokenDecoder}
+ * - local: {@link LocalIdTokenDecoder}, tokens signed with a shared key, for load tests
+ */
+public interface IdTokenDecoder {
+
+    /**
+     * @throws InvalidTokenException if the token is invalid, expired or revoked
+     */
+    VerifiedToken decode(String idToken) throws InvalidTokenException;
+}
@@ -0,0 +1,102 @@
+package com.greencoin.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greencoin.exception.InvalidTokenException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Stand-in for Firebase that accepts HS256 JWTs signed with
+ * {@code security.local-tokens.secret}, so the backend can be load-tested
+ * without real Firebase users. Claims used: {@code sub} (the uid),
+ * {@code email} and {@code exp}.
+ *
+ * Anyone holding the secret can sign in as any user; only enable it through
+ * the loadtest profile.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "security.token-verifier", havingValue = "local")
+public class LocalIdTokenDecoder implements IdTokenDecoder {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final SecretKeySpec key;
+    private final ObjectMapper objectMapper;
+
+    public LocalIdTokenDecoder(@Value("${security.local-tokens.secret}") String secret,
+            ObjectMapper objectMapper) {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException(
+                    "security.local-tokens.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.objectMapper = objectMapper;
+        log.warn("ID tokens are verified with a local signing key, not Firebase. Never enable this in production.");
+    }
+
+    @Override
+    public VerifiedToken decode(String idToken) throws InvalidTokenException {
+        String[] parts = idToken.split("\\.");
+        if (parts.length != 3) {
+            throw new InvalidTokenException("Token is not a JWT");
+        }
+
+        JsonNode header = parse(parts[0]);
+        if (!"HS256".equals(header.path("alg").asText())) {
+            throw new InvalidTokenException("Unsupported token algorithm");
+        }
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Malformed token signature", e);
+        }
+        if (!MessageDigest.isEqual(sign(parts[0] + "." + parts[1]), signature)) {
+            throw new InvalidTokenException("Invalid token signature");
+        }
+
+        JsonNode claims = parse(parts[1]);
+        String uid = claims.path("sub").asText(null);
+        long expiresAt = claims.path("exp").asLong(0);
+        if (uid == null || uid.isBlank()) {
+            throw new InvalidTokenException("Token has no subject");
+        }
+        if (expiresAt <= Instant.now().getEpochSecond()) {
+            throw new InvalidTokenException("Token has expired");
+        }
+        return new VerifiedToken(uid, claims.path("email").asText(null), expiresAt);
+    }
+
+    private byte[] sign(String content) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private JsonNode parse(String part) throws InvalidTokenException {
+        try {
+            return objectMapper.readTree(Base64.getUrlDecoder().decode(part));
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidTokenException("Malformed token", e);
+        }
+    }
+}
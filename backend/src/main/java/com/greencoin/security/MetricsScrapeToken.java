@@ -0,0 +1,38 @@
+package com.greencoin.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Shared secret the Prometheus scraper sends as a bearer token to read
+ * {@value #PATH}. Firebase tokens can't be minted by a scraper, so the path
+ * takes only this token. Without {@code metrics.scrape-token} it can't be read
+ * at all.
+ */
+@Component
+public class MetricsScrapeToken {
+
+    public static final String PATH = "/actuator/prometheus";
+
+    private final byte[] token;
+
+    public MetricsScrapeToken(@Value("${metrics.scrape-token:}") String token) {
+        this.token = token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean isScrapeRequest(HttpServletRequest request) {
+        return PATH.equals(request.getRequestURI());
+    }
+
+    public boolean matches(HttpServletRequest request) {
+        String presented = FirebaseTokenFilter.bearerToken(request.getHeader(HttpHeaders.AUTHORIZATION));
+        // Constant time, so the token can't be guessed byte by byte
+        return token != null && presented != null
+                && MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8));
+    }
+}
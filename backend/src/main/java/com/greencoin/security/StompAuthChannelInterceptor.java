@@ -0,0 +1,64 @@
+package com.greencoin.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+
+/**
+ * Authenticates STOMP sessions from an "Authorization: Bearer &lt;token&gt;"
+ * header on the CONNECT frame (the SockJS handshake can't carry one).
+ *
+ * The session principal's name is the Firebase UID, which is what
+ * /user/queue/coins is addressed to. Sessions without a valid token stay
+ * anonymous and can still use the public topics.
+ *
+ * User destinations resolve to /queue/{name}-user{sessionId}, so /queue may
+ * only be subscribed to through /user; clients only send to /app.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private final FirebaseTokenVerifier tokenVerifier;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand()) && destination != null
+                && destination.startsWith("/queue/")) {
+            throw new AccessDeniedException("Queues can only be subscribed to through /user/queue/...");
+        }
+        if (StompCommand.SEND.equals(accessor.getCommand()) && destination != null
+                && !destination.startsWith("/app/")) {
+            throw new AccessDeniedException("Clients can only send to /app destinations");
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String idToken = FirebaseTokenFilter.bearerToken(accessor.getFirstNativeHeader("Authorization"));
+            if (idToken != null) {
+                try {
+                    VerifiedToken token = tokenVerifier.verify(idToken);
+                    accessor.setUser(new UsernamePasswordAuthenticationToken(
+                            token.toPrincipal(), token.email(), new ArrayList<>()));
+                } catch (Exception e) {
+                    log.warn("STOMP token verification failed. Error: {}", e.getMessage());
+                }
+            }
+        }
+        return message;
+    }
+}
@@ -0,0 +1,28 @@
+package com.greencoin.security;
+
+import com.greencoin.model.User;
+
+/**
+ * The parts of a verified Firebase ID token the backend needs, plus the
+ * matching user row once it exists.
+ *
+ * @param uid             Firebase user id
+ * @param email           user's email, may be null
+ * @param expiresAtSecond the token's own {@code exp} claim (epoch seconds)
+ * @param userId          id of the registered user, null before registration
+ * @param role            role of the registered user, null before registration
+ */
+public record VerifiedToken(String uid, String email, long expiresAtSecond, Long userId, User.UserRole role) {
+
+    public VerifiedToken(String uid, String email, long expiresAtSecond) {
+        this(uid, email, expiresAtSecond, null, null);
+    }
+
+    public VerifiedToken withUser(User user) {
+        return new VerifiedToken(uid, email, expiresAtSecond, user.getId(), user.getRole());
+    }
+
+    public AuthenticatedUser toPrincipal() {
+        return new AuthenticatedUser(uid, email, userId, role);
+    }
+}
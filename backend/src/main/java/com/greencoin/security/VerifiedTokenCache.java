@@ -0,0 +1,103 @@
+package com.greencoin.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Bounded cache of verified ID tokens, keyed by a SHA-256 hash of the token.
+ *
+ * An entry lives until the token's own {@code exp}, capped at
+ * {@code security.token-cache.max-ttl} so revocation is re-checked
+ * periodically. Failed verifications are never cached, and neither is the
+ * user's id or role: those can change while the token is still valid.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(
+            @Value("${security.token-cache.max-size:10000}") long maxSize,
+            @Value("${security.token-cache.max-ttl:5m}") Duration maxTtl,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(maxTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "firebaseTokens");
+    }
+
+    /**
+     * @return the cached verification result, or null if the token has not been
+     *         verified recently or has expired
+     */
+    public VerifiedToken get(String idToken) {
+        VerifiedToken token = cache.getIfPresent(hash(idToken));
+        if (token != null && token.expiresAtSecond() <= Instant.now().getEpochSecond()) {
+            return null;
+        }
+        return token;
+    }
+
+    public void put(String idToken, VerifiedToken token) {
+        if (token.expiresAtSecond() > Instant.now().getEpochSecond()) {
+            cache.put(hash(idToken), token);
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    static String hash(String idToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(idToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Expires each entry at its token's {@code exp}, but no later than maxTtl
+     * after it was cached.
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        private final long maxTtlNanos;
+
+        TokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            long remainingSeconds = token.expiresAtSecond() - Instant.now().getEpochSecond();
+            return Math.max(0, Math.min(maxTtlNanos, Duration.ofSeconds(remainingSeconds).toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.greencoin.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Batches high-volume report broadcasts.
+ *
+ * Events for coalesced destinations are held for one window
+ * ({@code websocket.coalesce.window-ms}); only the latest state per report id
+ * survives, and each destination gets a single frame holding a JSON array.
+ * A window of 0 sends every event straight away, still as a one-element array.
+ *
+ * {@link #offer} returns a future that completes once a frame carrying the
+ * event, or a newer state of the same report, has been sent.
+ */
+@Slf4j
+@Component
+public class CoalescingBroadcaster {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final List<String> destinationPrefixes;
+    private final long windowMs;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter supersededCounter;
+    private final Counter framesCounter;
+    private Map<String, LinkedHashMap<Long, Held>> pending = new HashMap<>();
+
+    public CoalescingBroadcaster(SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${websocket.coalesce.destination-prefixes:/topic/reports/tile/}") List<String> destinationPrefixes,
+            @Value("${websocket.coalesce.window-ms:250}") long windowMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.destinationPrefixes = destinationPrefixes;
+        this.windowMs = windowMs;
+        this.supersededCounter = Counter.builder("websocket.coalesce.superseded")
+                .description("Report events replaced by a newer one within the same window")
+                .register(meterRegistry);
+        this.framesCounter = Counter.builder("websocket.coalesce.frames")
+                .description("Batched frames sent")
+                .register(meterRegistry);
+    }
+
+    public boolean isCoalesced(String destination) {
+        return destinationPrefixes.stream().anyMatch(destination::startsWith);
+    }
+
+    public CompletableFuture<Void> offer(String destination, long reportId, Object payload) {
+        if (windowMs <= 0) {
+            send(destination, List.of(payload));
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        lock.lock();
+        try {
+            LinkedHashMap<Long, Held> events = pending.computeIfAbsent(destination, d -> new LinkedHashMap<>());
+            Held superseded = events.get(reportId);
+            List<CompletableFuture<Void>> waiting = superseded != null ? superseded.sent() : new ArrayList<>();
+            waiting.add(sent);
+            events.put(reportId, new Held(payload, waiting));
+            if (superseded != null) {
+                supersededCounter.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return sent;
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.coalesce.window-ms:250}")
+    public void flush() {
+        Map<String, LinkedHashMap<Long, Held>> batch;
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        } finally {
+            lock.unlock();
+        }
+
+        batch.forEach((destination, events) -> {
+            try {
+                send(destination, events.values().stream().map(Held::payload).toList());
+                events.values().forEach(held -> held.sent().forEach(sent -> sent.complete(null)));
+            } catch (Exception e) {
+                log.warn("Failed to send batch of {} events for {}: {}", events.size(), destination, e.getMessage());
+                events.values().forEach(held -> held.sent().forEach(sent -> sent.completeExceptionally(e)));
+            }
+        });
+    }
+
+    private void send(String destination, List<Object> events) {
+        messagingTemplate.convertAndSend(destination, events);
+        framesCounter.increment();
+    }
+
+    /** Latest payload for a report, and the offers it answers for */
+    private record Held(Object payload, List<CompletableFuture<Void>> sent) {
+    }
+}
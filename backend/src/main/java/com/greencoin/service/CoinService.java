@@ -1,69 +1,79 @@
 package com.greencoin.service;
 
+import com.greencoin.dto.CursorPage;
+import com.greencoin.dto.PageCursor;
+import com.greencoin.metrics.MetricTags;
 import com.greencoin.model.CoinTransaction;
 import com.greencoin.model.User;
 import com.greencoin.repository.CoinTransactionRepository;
-import com.greencoin.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CoinService {
 
     private final CoinTransactionRepository transactionRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final WebSocketService webSocketService; // Assuming WebSocketService is needed for notifications
+    private final Meter.MeterProvider<Timer> transactionTimer;
+
+    public CoinService(CoinTransactionRepository transactionRepository, UserCache userCache,
+            WebSocketService webSocketService, MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.userCache = userCache;
+        this.webSocketService = webSocketService;
+        this.transactionTimer = Timer.builder("coins.transaction")
+                .description("Time to apply a coin award or redemption to the balance and ledger")
+                .withRegistry(meterRegistry);
+    }
 
     @Transactional
     public void awardCoins(User user, Integer amount, Long reportId) {
-        user.setCoinBalance(user.getCoinBalance() + amount);
-        userRepository.save(user);
-
-        CoinTransaction tx = CoinTransaction.builder()
-                .user(user)
-                .amount(amount)
-                .transactionType(CoinTransaction.TransactionType.EARNED)
-                .referenceId(reportId)
-                .referenceType("WASTE_REPORT")
-                .createdAt(LocalDateTime.now())
-                .build();
-        transactionRepository.save(tx);
+        long start = System.nanoTime();
+        Integer newBalance = transactionRepository.applyBalanceChange(user.getId(), amount,
+                CoinTransaction.TransactionType.EARNED.name(), reportId, "WASTE_REPORT", LocalDateTime.now())
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + user.getId()));
+        user.setCoinBalance(newBalance);
+        userCache.evictAfterCommit(user.getFirebaseUid());
+        recordTransaction(CoinTransaction.TransactionType.EARNED, start);
 
         // Notify user via WebSocket
-        webSocketService.notifyCoinUpdate(user, amount, user.getCoinBalance());
+        webSocketService.notifyCoinUpdate(user, amount, newBalance);
     }
 
     @Transactional
     public void redeemCoins(User user, Integer amount, String item) {
-        if (user.getCoinBalance() < amount) {
-            throw new RuntimeException("Insufficient balance");
-        }
-
-        user.setCoinBalance(user.getCoinBalance() - amount);
-        userRepository.save(user);
-
-        CoinTransaction tx = CoinTransaction.builder()
-                .user(user)
-                .amount(-amount)
-                .transactionType(CoinTransaction.TransactionType.REDEEMED)
-                .referenceType("MARKETPLACE_REDEEM")
-                .referenceId(0L) // Reference to actual item could be added
-                .createdAt(LocalDateTime.now())
-                .build();
-        transactionRepository.save(tx);
+        long start = System.nanoTime();
+        // Reference to actual item could be added
+        Integer newBalance = transactionRepository.applyBalanceChange(user.getId(), -amount,
+                CoinTransaction.TransactionType.REDEEMED.name(), 0L, "MARKETPLACE_REDEEM", LocalDateTime.now())
+                .orElseThrow(() -> new RuntimeException("Insufficient balance"));
+        user.setCoinBalance(newBalance);
+        userCache.evictAfterCommit(user.getFirebaseUid());
+        recordTransaction(CoinTransaction.TransactionType.REDEEMED, start);
 
         // Notify user via WebSocket
-        webSocketService.notifyCoinUpdate(user, -amount, user.getCoinBalance());
+        webSocketService.notifyCoinUpdate(user, -amount, newBalance);
+    }
+
+    private void recordTransaction(CoinTransaction.TransactionType type, long startNanos) {
+        transactionTimer.withTags(MetricTags.current().and("type", type.name()))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
     }
 
-    public List<CoinTransaction> getTransactionHistory(Long userId) {
-        return transactionRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public CursorPage<CoinTransaction> getTransactionHistory(Long userId, PageCursor cursor, int limit) {
+        return CursorPage.of(
+                transactionRepository.findPageByUserId(userId, cursor.timestamp(), cursor.id(),
+                        PageRequest.ofSize(limit + 1)),
+                limit, tx -> new PageCursor(tx.getCreatedAt(), tx.getId()));
     }
 }
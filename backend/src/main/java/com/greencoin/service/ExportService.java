@@ -0,0 +1,274 @@
+package com.greencoin.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.greencoin.storage.ImageReferences;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Full exports of reports and the coin ledger, for auditing.
+ *
+ * Rows are read with plain JDBC through a forward-only cursor,
+ * {@code export.fetch-size} rows per round trip, and written to the output as
+ * they arrive; heap use is the same for ten rows or ten million. The Postgres
+ * driver only reads through a cursor inside a transaction, so each export
+ * holds one read-only transaction (and connection) until it finishes.
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        /**
+         * @throws IllegalStateException for anything but csv or ndjson
+         */
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalStateException("format must be csv or ndjson");
+        }
+    }
+
+    /**
+     * Rows whose timestamp is in [from, to) and whose status is one of
+     * {@code statuses}; null or empty means no limit.
+     */
+    public record Filter(LocalDateTime from, LocalDateTime to, Collection<? extends Enum<?>> statuses) {
+
+        /**
+         * @param from first day included, or null
+         * @param to   last day included, or null
+         * @throws IllegalStateException if {@code to} is before {@code from}
+         */
+        public static Filter ofDays(LocalDate from, LocalDate to, Collection<? extends Enum<?>> statuses) {
+            if (from != null && to != null && to.isBefore(from)) {
+                throw new IllegalStateException("to must not be before from");
+            }
+            return new Filter(from == null ? null : from.atStartOfDay(),
+                    to == null ? null : to.plusDays(1).atStartOfDay(), statuses);
+        }
+    }
+
+    private static final String[] REPORT_COLUMNS = {
+            "id", "reporterId", "latitude", "longitude", "status", "description", "imageUrl",
+            "coinsAwarded", "collectorId", "reportedAt", "pickedAt", "collectedAt"
+    };
+
+    // Legacy Base64 image data is left in the database; the migration job moves it to blobs
+    private static final String REPORT_SELECT = "SELECT id, reporter_id, latitude, longitude, status, description, " +
+            "CASE WHEN image_url LIKE 'data:%' THEN NULL ELSE image_url END AS image_url, " +
+            "coins_awarded, collector_id, reported_at, picked_at, collected_at FROM waste_reports";
+
+    private static final String[] TRANSACTION_COLUMNS = {
+            "id", "userId", "amount", "transactionType", "referenceId", "referenceType", "createdAt"
+    };
+
+    private static final String TRANSACTION_SELECT = "SELECT id, user_id, amount, transaction_type, reference_id, " +
+            "reference_type, created_at FROM coin_transactions";
+
+    // Characters that make a spreadsheet treat a cell as a formula (tab and CR as well, per OWASP)
+    private static final String CSV_FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    // Without the strict check, any value with punctuation (every timestamp) is quoted
+    private final CsvMapper csvMapper = CsvMapper.builder()
+            .enable(CsvGenerator.Feature.STRICT_CHECK_FOR_QUOTING)
+            .build();
+
+    public ExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper, @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes reports filtered on reported_at and status, in id order, and
+     * closes {@code out}.
+     *
+     * @return rows written
+     */
+    public long exportReports(Filter filter, Format format, OutputStream out) throws IOException {
+        return export("waste_reports", REPORT_SELECT, "reported_at", "status", filter,
+                REPORT_COLUMNS, rs -> new Object[] {
+                        rs.getLong("id"),
+                        rs.getObject("reporter_id", Long.class),
+                        rs.getBigDecimal("latitude"),
+                        rs.getBigDecimal("longitude"),
+                        rs.getString("status"),
+                        rs.getString("description"),
+                        ImageReferences.toPublicUrl(rs.getString("image_url")),
+                        rs.getObject("coins_awarded", Integer.class),
+                        rs.getObject("collector_id", Long.class),
+                        timestamp(rs, "reported_at"),
+                        timestamp(rs, "picked_at"),
+                        timestamp(rs, "collected_at")
+                }, format, out);
+    }
+
+    /**
+     * Writes coin transactions filtered on created_at and transaction type, in
+     * id order, and closes {@code out}.
+     *
+     * @return rows written
+     */
+    public long exportCoinTransactions(Filter filter, Format format, OutputStream out) throws IOException {
+        return export("coin_transactions", TRANSACTION_SELECT, "created_at", "transaction_type", filter,
+                TRANSACTION_COLUMNS, rs -> new Object[] {
+                        rs.getLong("id"),
+                        rs.getObject("user_id", Long.class),
+                        rs.getObject("amount", Integer.class),
+                        rs.getString("transaction_type"),
+                        rs.getObject("reference_id", Long.class),
+                        rs.getString("reference_type"),
+                        timestamp(rs, "created_at")
+                }, format, out);
+    }
+
+    private long export(String table, String select, String timeColumn, String statusColumn, Filter filter,
+            String[] columns, RowReader rowReader, Format format, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(select).append(" WHERE TRUE");
+        List<Object> args = new ArrayList<>();
+        if (filter.from() != null) {
+            sql.append(" AND ").append(timeColumn).append(" >= ?");
+            args.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND ").append(timeColumn).append(" < ?");
+            args.add(Timestamp.valueOf(filter.to()));
+        }
+        Collection<? extends Enum<?>> statuses = filter.statuses();
+        if (statuses != null && !statuses.isEmpty()) {
+            sql.append(" AND ").append(statusColumn).append(" IN (")
+                    .append(String.join(", ", Collections.nCopies(statuses.size(), "?"))).append(")");
+            statuses.forEach(status -> args.add(status.name()));
+        }
+        sql.append(" ORDER BY id");
+
+        long start = System.nanoTime();
+        long[] rows = {0};
+        try (RowWriter writer = format == Format.CSV ? csvWriter(columns, out) : ndjsonWriter(columns, out)) {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(sql.toString(), rs -> {
+                try {
+                    writer.write(rowReader.read(rs));
+                } catch (IOException e) {
+                    // Usually the client went away; stops the query
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }, args.toArray()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} rows of {} as {} in {} ms", rows[0], table, format,
+                (System.nanoTime() - start) / 1_000_000);
+        return rows[0];
+    }
+
+    private static String timestamp(ResultSet rs, String column) throws SQLException {
+        LocalDateTime value = rs.getObject(column, LocalDateTime.class);
+        return value == null ? null : value.toString();
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        Object[] read(ResultSet rs) throws SQLException;
+    }
+
+    private interface RowWriter extends Closeable {
+        void write(Object[] values) throws IOException;
+    }
+
+    /**
+     * Header row, then one row per record; values are quoted only when they need it.
+     * Text starting with a formula character gets a leading {@code '} so that
+     * spreadsheets show it instead of evaluating it; numbers are left alone.
+     */
+    private RowWriter csvWriter(String[] columns, OutputStream out) throws IOException {
+        CsvSchema.Builder schema = CsvSchema.builder().setUseHeader(true);
+        for (String column : columns) {
+            schema.addColumn(column);
+        }
+        SequenceWriter writer = csvMapper.writer(schema.build()).writeValues(out);
+        return new RowWriter() {
+            @Override
+            public void write(Object[] values) throws IOException {
+                // Null array elements are dropped rather than written as empty cells
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] == null) {
+                        values[i] = "";
+                    } else if (values[i] instanceof String text && isFormula(text)) {
+                        values[i] = "'" + text;
+                    }
+                }
+                writer.write(values);
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+
+    private static boolean isFormula(String text) {
+        return !text.isEmpty() && CSV_FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0;
+    }
+
+    /** One JSON object per line, with the columns as fields */
+    private RowWriter ndjsonWriter(String[] columns, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // Lines are separated below; the default separator would start each one with a space
+        generator.setRootValueSeparator(null);
+        return new RowWriter() {
+            @Override
+            public void write(Object[] values) throws IOException {
+                generator.writeStartObject();
+                for (int i = 0; i < columns.length; i++) {
+                    generator.writeObjectField(columns[i], values[i]);
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+
+            @Override
+            public void close() throws IOException {
+                generator.close();
+            }
+        };
+    }
+}
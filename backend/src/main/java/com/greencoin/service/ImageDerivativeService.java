@@ -0,0 +1,182 @@
+package com.greencoin.service;
+
+import com.greencoin.event.ReportLifecycleEvent;
+import com.greencoin.storage.BlobStore;
+import com.greencoin.storage.ImageReferences;
+import com.greencoin.storage.ImageVariant;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the fixed-size {@link ImageVariant}s for report images.
+ *
+ * Work runs on a small bounded pool after the creating transaction commits, so
+ * report creation never waits on image decoding. When the queue is full the
+ * job is dropped; the image controller falls back to the original and
+ * queues the image again on each request for a missing derivative.
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    private final BlobStore blobStore;
+    private final ThreadPoolExecutor executor;
+    // Digests waiting or being processed, so repeated requests queue an image once
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    public ImageDerivativeService(BlobStore blobStore,
+            @Value("${storage.derivatives.threads:2}") int threads,
+            @Value("${storage.derivatives.queue-capacity:200}") int queueCapacity) {
+        this.blobStore = blobStore;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @TransactionalEventListener
+    public void onReportEvent(ReportLifecycleEvent event) {
+        if (event.type() == ReportLifecycleEvent.Type.CREATED && ImageReferences.isReference(event.imageUrl())) {
+            generateAsync(ImageReferences.digestOf(event.imageUrl()));
+        }
+    }
+
+    public void generateAsync(String digest) {
+        if (!queued.add(digest)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(digest);
+                } finally {
+                    queued.remove(digest);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(digest);
+            log.warn("Derivative queue full, image {} waits for its next variant request", digest);
+        }
+    }
+
+    public void generate(String digest) {
+        List<ImageVariant> missing = Arrays.stream(ImageVariant.values())
+                .filter(variant -> !blobStore.existsVariant(digest, variant.getKey()))
+                .sorted(Comparator.comparingInt(ImageVariant::getMaxDimension).reversed())
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        Optional<Resource> original = blobStore.get(digest);
+        if (original.isEmpty()) {
+            log.warn("Cannot generate derivatives, image {} not found", digest);
+            return;
+        }
+
+        try {
+            BufferedImage image = decode(original.get(), missing.get(0).getMaxDimension());
+            if (image == null) {
+                log.debug("No derivatives for image {}: format not readable", digest);
+                return;
+            }
+            // Each variant is scaled from the next larger one, so the original is decoded once
+            for (ImageVariant variant : missing) {
+                image = scale(image, variant.getMaxDimension());
+                blobStore.putVariant(digest, variant.getKey(), encodeJpeg(image));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to generate derivatives for image {}: {}", digest, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decode the image, subsampling large sources so we never materialize the
+     * full resolution when only a small derivative is needed.
+     */
+    private BufferedImage decode(Resource resource, int targetDimension) throws IOException {
+        try (InputStream in = resource.getInputStream();
+                ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int largest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, largest / (targetDimension * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source, int maxDimension) {
+        double factor = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * factor));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha channel, flatten transparent images onto white
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, "jpg", out)) {
+            throw new IOException("No JPEG writer available");
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,94 @@
+package com.greencoin.service;
+
+import com.greencoin.storage.ImageReferences;
+import com.greencoin.threads.WorkerThreads;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves legacy Base64 images out of {@code waste_reports.image_url} into the
+ * blob store.
+ *
+ * Runs once in the background after startup. Rows are walked by id in small
+ * batches so only a handful of Base64 strings are in memory at a time.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageMigrationJob {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReportImageService imageService;
+    private final ImageDerivativeService derivativeService;
+    private final WorkerThreads workerThreads;
+
+    @Value("${storage.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${storage.migration.batch-size:20}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        workerThreads.named("image-migration").newThread(this::migrateAll).start();
+    }
+
+    public void migrateAll() {
+        long lastId = 0;
+        int migrated = 0;
+        int failed = 0;
+
+        try {
+            while (true) {
+                List<LegacyImage> batch = jdbcTemplate.query(
+                        "SELECT id, image_url FROM waste_reports WHERE id > ? AND image_url LIKE 'data:%' " +
+                                "ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new LegacyImage(rs.getLong("id"), rs.getString("image_url")),
+                        lastId, batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                List<Object[]> updates = new ArrayList<>(batch.size());
+                for (LegacyImage image : batch) {
+                    lastId = image.id();
+                    try {
+                        String reference = imageService.ingest(image.dataUrl());
+                        updates.add(new Object[] { reference, image.id() });
+                        derivativeService.generateAsync(ImageReferences.digestOf(reference));
+                    } catch (RuntimeException e) {
+                        failed++;
+                        log.warn("Skipping image migration for report {}: {}", image.id(), e.getMessage());
+                    }
+                }
+
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(
+                            "UPDATE waste_reports SET image_url = ? WHERE id = ? AND image_url LIKE 'data:%'",
+                            updates);
+                    migrated += updates.size();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Image migration stopped after report {}: {}", lastId, e.getMessage(), e);
+        }
+
+        if (migrated > 0 || failed > 0) {
+            log.info("Image migration finished. Migrated: {}, failed: {}", migrated, failed);
+        }
+    }
+
+    private record LegacyImage(long id, String dataUrl) {
+    }
+}
@@ -0,0 +1,290 @@
+package com.greencoin.service;
+
+import com.greencoin.dto.ReportLocation;
+import com.greencoin.event.ReportLifecycleEvent;
+import com.greencoin.geo.GeoGrid;
+import com.greencoin.model.WasteReport;
+import com.greencoin.repository.WasteReportRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory grid index of OPEN reports for radius queries.
+ *
+ * Kept current from committed {@link ReportLifecycleEvent}s and rebuilt from
+ * the database at startup. Until the first rebuild completes
+ * {@link #isReady()} is false and callers should query the database instead.
+ *
+ * Events only fire on the node that made the change, so every node also
+ * polls the delta sync position (see
+ * {@link WasteReportService#getChangesSince}) to apply the others' writes.
+ *
+ * The index holds at most {@code reports.index.max-size} reports (~200 bytes
+ * each). Past that, for instance after a large import, it is dropped and
+ * callers query the database until the count is back under the limit.
+ */
+@Slf4j
+@Component
+public class OpenReportIndex {
+
+    private final WasteReportRepository reportRepository;
+    private final GeoGrid grid;
+    private final int maxSize;
+
+    @Value("${reports.index.refresh-batch-size:10000}")
+    private int refreshBatchSize;
+
+    @Value("${reports.index.capacity-check-interval:1m}")
+    private Duration capacityCheckInterval;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final List<ReportLifecycleEvent> eventsDuringRebuild = new ArrayList<>();
+    private boolean rebuilding;
+
+    private volatile Cells cells = new Cells();
+    private volatile boolean ready;
+    // Delta sync position the index is current to; only the rebuild and refresh threads touch it
+    private long syncedTo;
+    // Set while there are more OPEN reports than maxSize; guarded by rebuildLock
+    private boolean overCapacity;
+    private volatile Instant nextCapacityCheck = Instant.MIN;
+
+    public OpenReportIndex(WasteReportRepository reportRepository,
+            @Value("${reports.index.cell-degrees:0.05}") double cellDegrees,
+            @Value("${reports.index.max-size:200000}") int maxSize) {
+        this.reportRepository = reportRepository;
+        this.grid = new GeoGrid(cellDegrees);
+        this.maxSize = maxSize;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return cells.byId.size();
+    }
+
+    /**
+     * OPEN reports within {@code radiusKm}, nearest first.
+     */
+    public List<Hit> findWithin(double latitude, double longitude, double radiusKm, int limit) {
+        Cells current = cells;
+        List<Hit> hits = new ArrayList<>();
+        for (Long key : grid.cellsWithin(latitude, longitude, radiusKm)) {
+            Map<Long, Entry> cell = current.byCell.get(key);
+            if (cell == null) {
+                continue;
+            }
+            for (Entry entry : cell.values()) {
+                double distance = GeoGrid.distanceKm(latitude, longitude, entry.latitude(), entry.longitude());
+                if (distance <= radiusKm) {
+                    hits.add(new Hit(entry.id(), distance));
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuilding = true;
+            eventsDuringRebuild.clear();
+        } finally {
+            rebuildLock.unlock();
+        }
+
+        Cells fresh = new Cells();
+        long snapshotPosition;
+        try {
+            long open = reportRepository.countByStatus(WasteReport.ReportStatus.OPEN);
+            if (open > maxSize) {
+                rebuildLock.lock();
+                try {
+                    disable(open);
+                } finally {
+                    rebuildLock.unlock();
+                }
+                return;
+            }
+            snapshotPosition = reportRepository.findChangeWatermark();
+            for (ReportLocation location : reportRepository.findLocationsByStatus(WasteReport.ReportStatus.OPEN)) {
+                apply(fresh, location);
+            }
+        } catch (RuntimeException e) {
+            rebuildLock.lock();
+            try {
+                rebuilding = false;
+                eventsDuringRebuild.clear();
+            } finally {
+                rebuildLock.unlock();
+            }
+            log.error("Failed to build open report index: {}", e.getMessage(), e);
+            return;
+        }
+
+        rebuildLock.lock();
+        try {
+            // Replay changes committed while the snapshot was loading
+            eventsDuringRebuild.forEach(event -> apply(fresh, event));
+            if (fresh.byId.size() > maxSize) {
+                disable(fresh.byId.size());
+                return;
+            }
+            eventsDuringRebuild.clear();
+            rebuilding = false;
+            cells = fresh;
+            syncedTo = snapshotPosition;
+            overCapacity = false;
+            ready = true;
+        } finally {
+            rebuildLock.unlock();
+        }
+        log.info("Open report index built with {} reports", fresh.byId.size());
+    }
+
+    /**
+     * Applies reports changed on any node since the last refresh; above
+     * {@code reports.index.refresh-batch-size} changes, rebuilds instead.
+     * A row read just before a local event may briefly undo it; the next
+     * refresh reads that row again.
+     */
+    @Scheduled(fixedDelayString = "${reports.index.refresh-interval-ms:2000}",
+            initialDelayString = "${reports.index.refresh-interval-ms:2000}")
+    public void refresh() {
+        if (!ready) {
+            if (overCapacity && Instant.now().isAfter(nextCapacityCheck)) {
+                rebuild();
+            }
+            return;
+        }
+        List<ReportLocation> changed;
+        long position;
+        try {
+            position = reportRepository.findChangeWatermark();
+            changed = reportRepository.findLocationsChangedSince(syncedTo, PageRequest.ofSize(refreshBatchSize + 1));
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh open report index: {}", e.getMessage());
+            return;
+        }
+        if (changed.size() > refreshBatchSize) {
+            rebuild();
+            return;
+        }
+
+        rebuildLock.lock();
+        try {
+            changed.forEach(location -> apply(cells, location));
+            syncedTo = position;
+            disableIfFull();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onReportEvent(ReportLifecycleEvent event) {
+        rebuildLock.lock();
+        try {
+            if (rebuilding) {
+                eventsDuringRebuild.add(event);
+            }
+            if (!overCapacity) {
+                apply(cells, event);
+                disableIfFull();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /** Called with {@code rebuildLock} held */
+    private void disableIfFull() {
+        if (cells.byId.size() > maxSize) {
+            disable(cells.byId.size());
+        }
+    }
+
+    /**
+     * Drops the index so it stops taking memory; {@link #refresh()} rebuilds
+     * it once the count is checked again and fits. Called with {@code rebuildLock} held.
+     */
+    private void disable(long open) {
+        if (!overCapacity) {
+            log.warn("{} OPEN reports exceed reports.index.max-size ({}); nearby queries use the database",
+                    open, maxSize);
+        }
+        eventsDuringRebuild.clear();
+        rebuilding = false;
+        ready = false;
+        overCapacity = true;
+        cells = new Cells();
+        nextCapacityCheck = Instant.now().plus(capacityCheckInterval);
+    }
+
+    private void apply(Cells target, ReportLifecycleEvent event) {
+        if (event.status() == WasteReport.ReportStatus.OPEN) {
+            target.put(event.reportId(), event.latitude(), event.longitude(), grid);
+        } else {
+            target.remove(event.reportId());
+        }
+    }
+
+    private void apply(Cells target, ReportLocation location) {
+        if (location.status() == WasteReport.ReportStatus.OPEN) {
+            target.put(location.id(), location.latitude().doubleValue(), location.longitude().doubleValue(), grid);
+        } else {
+            target.remove(location.id());
+        }
+    }
+
+    public record Hit(long reportId, double distanceKm) {
+    }
+
+    private record Entry(long id, double latitude, double longitude, long cellKey) {
+    }
+
+    /**
+     * Index contents. Mutations are serialized by {@code rebuildLock}; readers
+     * need no locking.
+     */
+    private static final class Cells {
+        final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+        final Map<Long, Map<Long, Entry>> byCell = new ConcurrentHashMap<>();
+
+        void put(long id, double latitude, double longitude, GeoGrid grid) {
+            remove(id);
+            Entry entry = new Entry(id, latitude, longitude, grid.cellKey(latitude, longitude));
+            byId.put(id, entry);
+            byCell.computeIfAbsent(entry.cellKey(), key -> new ConcurrentHashMap<>()).put(id, entry);
+        }
+
+        void remove(long id) {
+            Entry entry = byId.remove(id);
+            if (entry != null) {
+                byCell.computeIfPresent(entry.cellKey(), (key, cell) -> {
+                    cell.remove(id);
+                    return cell.isEmpty() ? null : cell;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.greencoin.service;
+
+import com.greencoin.storage.BlobStore;
+import com.greencoin.storage.ImageReferences;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Deletes images whose report was never saved.
+ *
+ * Blobs are shared by digest, so the upload that failed can't delete its blob
+ * on the spot: a concurrent upload of the same bytes may have found it and be
+ * about to save a report pointing at it. Failed uploads only record the
+ * digest in {@code orphaned_images}; once it is older than
+ * {@code storage.orphans.grace}, a sweep deletes the blob if no report
+ * references it and nobody stored the same bytes again during the grace
+ * period. Every node runs the sweep; deleting twice is harmless.
+ */
+@Slf4j
+@Component
+public class OrphanedImageCollector {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+    private final Counter deleted;
+
+    @Value("${storage.orphans.grace:1h}")
+    private Duration grace;
+
+    @Value("${storage.orphans.batch-size:100}")
+    private int batchSize;
+
+    public OrphanedImageCollector(JdbcTemplate jdbcTemplate, BlobStore blobStore, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blobStore = blobStore;
+        this.deleted = Counter.builder("storage.orphans.deleted")
+                .description("Images deleted because no report was saved for them")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a stored image whose report was not saved, for a later sweep
+     */
+    public void markOrphaned(String digest) {
+        try {
+            jdbcTemplate.update("INSERT INTO orphaned_images (digest, discarded_at) VALUES (?, ?) " +
+                    "ON CONFLICT (digest) DO UPDATE SET discarded_at = EXCLUDED.discarded_at",
+                    digest, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.warn("Failed to record orphaned image {}: {}", digest, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${storage.orphans.sweep-interval-ms:600000}",
+            initialDelayString = "${storage.orphans.sweep-interval-ms:600000}")
+    public void sweep() {
+        try {
+            collect();
+        } catch (RuntimeException e) {
+            log.warn("Orphaned image sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return how many blobs were deleted
+     */
+    public int collect() {
+        Instant cutoff = Instant.now().minus(grace);
+        LocalDateTime discardedBefore = LocalDateTime.ofInstant(cutoff, ZoneId.systemDefault());
+        List<Orphan> due = jdbcTemplate.query(
+                "SELECT o.digest, EXISTS (SELECT 1 FROM waste_reports r WHERE r.image_url = ? || o.digest) " +
+                        "AS referenced FROM orphaned_images o WHERE o.discarded_at < ? " +
+                        "ORDER BY o.discarded_at LIMIT ?",
+                (rs, rowNum) -> new Orphan(rs.getString("digest"), rs.getBoolean("referenced")),
+                ImageReferences.PREFIX, discardedBefore, batchSize);
+
+        int removed = 0;
+        for (Orphan orphan : due) {
+            if (!orphan.referenced()) {
+                try {
+                    // A duplicate upload stores the blob again, so one racing this sweep keeps it
+                    if (!blobStore.deleteIfStoredBefore(orphan.digest(), cutoff)) {
+                        continue;
+                    }
+                } catch (IOException e) {
+                    log.warn("Failed to remove orphaned image {}: {}", orphan.digest(), e.getMessage());
+                    continue;
+                }
+                removed++;
+                deleted.increment();
+            }
+            jdbcTemplate.update("DELETE FROM orphaned_images WHERE digest = ? AND discarded_at < ?",
+                    orphan.digest(), discardedBefore);
+        }
+        if (removed > 0) {
+            log.info("Deleted {} orphaned images", removed);
+        }
+        return removed;
+    }
+
+    private record Orphan(String digest, boolean referenced) {
+    }
+}
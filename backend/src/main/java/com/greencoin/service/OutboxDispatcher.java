@@ -0,0 +1,337 @@
+package com.greencoin.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greencoin.model.OutboxEvent;
+import com.greencoin.repository.OutboxEventRepository;
+import com.greencoin.threads.WorkerThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes committed {@link OutboxEvent}s to the message broker.
+ *
+ * Events are spread over single-threaded lanes by partition key, so events
+ * for one report go out in the order they were recorded. Each lane has a
+ * bounded queue; events that don't fit, or that still fail after the inline
+ * retries, stay unpublished in the table and are picked up by the periodic
+ * sweep. Until then their partition key is blocked: later events for it are
+ * held back too, and the sweep sends them all in id order. An event is only
+ * marked published once it has been sent: for coalesced destinations that is
+ * when its batched frame goes out, and a failed batch is left for the sweep
+ * too. Delivery is at-least-once. Every node sweeps, but each stale event is
+ * claimed by one of them for {@code outbox.claim-lease}. Ordering holds for
+ * the events one node records.
+ *
+ * An event that has failed {@code outbox.dead-letter-after} times in total is
+ * dead-lettered: it is never sent again, and its partition key is released
+ * so the events behind it go out. Otherwise one frame the broker always
+ * rejects would hold back a report's or user's notifications forever.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final CoalescingBroadcaster broadcaster;
+    private final ObjectMapper objectMapper;
+    private final List<ThreadPoolExecutor> lanes = new ArrayList<>();
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Partition key -> lowest id of an event for it left unsent; guarded by blockLock for writes
+    private final Map<String, Long> blocked = new ConcurrentHashMap<>();
+    private final ReentrantLock blockLock = new ReentrantLock();
+    private final AtomicLong pending = new AtomicLong();
+    private final Timer lagTimer;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    private final Counter heldCounter;
+    private final Counter deadLetteredCounter;
+
+    @Value("${outbox.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${outbox.retry-backoff:200ms}")
+    private Duration retryBackoff;
+
+    @Value("${outbox.sweep-after:30s}")
+    private Duration sweepAfter;
+
+    @Value("${outbox.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    @Value("${outbox.retention:1h}")
+    private Duration retention;
+
+    @Value("${outbox.claim-lease:2m}")
+    private Duration claimLease;
+
+    @Value("${outbox.dead-letter-after:15}")
+    private int deadLetterAfter;
+
+    @Value("${outbox.dead-letter-retention:7d}")
+    private Duration deadLetterRetention;
+
+    public OutboxDispatcher(OutboxEventRepository outboxRepository,
+            SimpMessagingTemplate messagingTemplate,
+            CoalescingBroadcaster broadcaster,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            WorkerThreads workerThreads,
+            @Value("${outbox.lanes:4}") int laneCount,
+            @Value("${outbox.queue-capacity:1000}") int queueCapacity) {
+        this.outboxRepository = outboxRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.broadcaster = broadcaster;
+        this.objectMapper = objectMapper;
+
+        int laneCapacity = Math.max(1, queueCapacity / laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(laneCapacity),
+                    workerThreads.named("outbox-lane-" + i)));
+        }
+
+        Gauge.builder("outbox.queue.depth", this, OutboxDispatcher::queueDepth)
+                .description("Outbox events waiting in dispatcher lanes")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Unpublished outbox events, as of the last sweep")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("outbox.dispatch.lag")
+                .description("Time from recording an outbox event to publishing it")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("outbox.dispatch.rejected")
+                .description("Events left for the sweep because a lane queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.dispatch.failed")
+                .description("Events left for the sweep after exhausting retries")
+                .register(meterRegistry);
+        this.heldCounter = Counter.builder("outbox.dispatch.held")
+                .description("Events left for the sweep behind an unsent event for the same partition key")
+                .register(meterRegistry);
+        this.deadLetteredCounter = Counter.builder("outbox.dispatch.dead-lettered")
+                .description("Events given up on after outbox.dead-letter-after failed attempts")
+                .register(meterRegistry);
+        Gauge.builder("outbox.dead-letters", outboxRepository, OutboxEventRepository::countByFailedAtIsNotNull)
+                .description("Dead-lettered outbox events still in the table")
+                .register(meterRegistry);
+    }
+
+    public void enqueue(OutboxEvent event) {
+        if (blocked.containsKey(event.getPartitionKey())) {
+            blockLock.lock();
+            try {
+                // Re-checked: the sweep may be releasing this key right now
+                if (isHeldBack(event)) {
+                    heldCounter.increment();
+                    return;
+                }
+                submit(event);
+            } finally {
+                blockLock.unlock();
+            }
+            return;
+        }
+        submit(event);
+    }
+
+    private void submit(OutboxEvent event) {
+        if (!inFlight.add(event.getId())) {
+            return;
+        }
+        try {
+            laneFor(event.getPartitionKey()).execute(() -> dispatch(event));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(event.getId());
+            rejectedCounter.increment();
+            block(event);
+            log.warn("Outbox lane full, event {} left for the sweep", event.getId());
+        }
+    }
+
+    private boolean isHeldBack(OutboxEvent event) {
+        Long blocker = blocked.get(event.getPartitionKey());
+        return blocker != null && blocker < event.getId();
+    }
+
+    private void block(OutboxEvent event) {
+        blockLock.lock();
+        try {
+            blocked.merge(event.getPartitionKey(), event.getId(), Math::min);
+        } finally {
+            blockLock.unlock();
+        }
+    }
+
+    public int queueDepth() {
+        return lanes.stream().mapToInt(lane -> lane.getQueue().size()).sum();
+    }
+
+    /**
+     * Re-enqueues events that were rejected, failed, or recorded before a restart
+     */
+    @Scheduled(fixedDelayString = "${outbox.sweep-interval-ms:10000}", initialDelayString = "${outbox.sweep-interval-ms:10000}")
+    public void sweep() {
+        try {
+            blocked.keySet().forEach(this::release);
+
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> stale = new ArrayList<>(outboxRepository.claimUnpublishedBefore(
+                    now.minus(sweepAfter), now, now.plus(claimLease), sweepBatchSize));
+            if (!stale.isEmpty()) {
+                log.info("Outbox sweep re-enqueuing {} events", stale.size());
+            }
+            stale.sort(Comparator.comparing(OutboxEvent::getId));
+            stale.forEach(this::enqueue);
+
+            outboxRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+            outboxRepository.deleteFailedBefore(LocalDateTime.now().minus(deadLetterRetention));
+            pending.set(outboxRepository.countByPublishedAtIsNullAndFailedAtIsNull());
+        } catch (Exception e) {
+            log.warn("Outbox sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sends a blocked partition's unsent events in id order, whatever their
+     * age. Waits for the next sweep while any of them is still in a lane.
+     */
+    private void release(String partitionKey) {
+        blockLock.lock();
+        try {
+            List<OutboxEvent> held = outboxRepository.findUnpublishedByPartitionKey(partitionKey,
+                    PageRequest.ofSize(sweepBatchSize));
+            if (held.stream().anyMatch(event -> inFlight.contains(event.getId()))) {
+                return;
+            }
+            if (held.size() < sweepBatchSize) {
+                blocked.remove(partitionKey);
+            } else {
+                blocked.put(partitionKey, held.get(held.size() - 1).getId() + 1);
+            }
+            log.info("Outbox sweep releasing {} held events for {}", held.size(), partitionKey);
+            held.forEach(this::submit);
+        } finally {
+            blockLock.unlock();
+        }
+    }
+
+    private void dispatch(OutboxEvent event) {
+        if (isHeldBack(event)) {
+            // An earlier event for this key failed while this one was queued behind it
+            inFlight.remove(event.getId());
+            heldCounter.increment();
+            return;
+        }
+        boolean handedOver = false;
+        try {
+            int attempts = 0;
+            while (attempts < maxAttempts) {
+                attempts++;
+                try {
+                    CompletableFuture<Void> sent = publish(event);
+                    handedOver = true;
+                    int publishAttempts = attempts;
+                    sent.whenComplete((ignored, error) -> onSent(event, publishAttempts, error));
+                    return;
+                } catch (Exception e) {
+                    log.warn("Publishing outbox event {} failed (attempt {}/{}): {}",
+                            event.getId(), attempts, maxAttempts, e.getMessage());
+                    if (attempts < maxAttempts) {
+                        Thread.sleep(retryBackoff.multipliedBy(attempts).toMillis());
+                    }
+                }
+            }
+            failed(event, attempts);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!handedOver) {
+                inFlight.remove(event.getId());
+            }
+        }
+    }
+
+    /**
+     * Records the outcome once the event has gone out; runs on the lane, or on
+     * the broadcaster's flush for coalesced destinations.
+     */
+    private void onSent(OutboxEvent event, int attempts, Throwable error) {
+        try {
+            if (error == null) {
+                outboxRepository.markPublished(event.getId(), LocalDateTime.now(), attempts);
+                lagTimer.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } else {
+                log.warn("Batched frame with outbox event {} was not sent: {}", event.getId(), error.getMessage());
+                failed(event, attempts);
+            }
+        } catch (Exception e) {
+            log.warn("Could not record outcome of outbox event {}: {}", event.getId(), e.getMessage());
+        } finally {
+            inFlight.remove(event.getId());
+        }
+    }
+
+    /**
+     * Leaves the event for the sweep and holds back its partition key, or
+     * dead-letters it and lets the events behind it go
+     */
+    private void failed(OutboxEvent event, int attempts) {
+        failedCounter.increment();
+        block(event);
+        if (outboxRepository.recordFailedAttempts(event.getId(), attempts, deadLetterAfter, LocalDateTime.now())) {
+            deadLetteredCounter.increment();
+            log.error("Outbox event {} to {} dead-lettered after {} attempts", event.getId(),
+                    event.getDestination(), deadLetterAfter);
+            release(event.getPartitionKey());
+        }
+    }
+
+    private CompletableFuture<Void> publish(OutboxEvent event) throws Exception {
+        JsonNode payload = objectMapper.readTree(event.getPayload());
+        if (event.getUserName() != null) {
+            messagingTemplate.convertAndSendToUser(event.getUserName(), event.getDestination(), payload);
+        } else if (broadcaster.isCoalesced(event.getDestination()) && payload.hasNonNull("id")) {
+            // Sent within one window, together with the other events for that tile
+            return broadcaster.offer(event.getDestination(), payload.get("id").asLong(), payload);
+        } else {
+            messagingTemplate.convertAndSend(event.getDestination(), payload);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private ThreadPoolExecutor laneFor(String partitionKey) {
+        return lanes.get(Math.floorMod(partitionKey.hashCode(), lanes.size()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.forEach(ThreadPoolExecutor::shutdown);
+    }
+}
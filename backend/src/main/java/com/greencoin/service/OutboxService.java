@@ -0,0 +1,60 @@
+package com.greencoin.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greencoin.model.OutboxEvent;
+import com.greencoin.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Records notifications in the caller's transaction and hands them to the
+ * {@link OutboxDispatcher} once it commits. Rolled-back work never reaches
+ * clients, and broker fan-out no longer runs inside the transaction.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxDispatcher dispatcher;
+    private final ObjectMapper objectMapper;
+
+    public void record(String partitionKey, String destination, Object payload) {
+        record(partitionKey, destination, null, payload);
+    }
+
+    public void recordForUser(String partitionKey, String userName, String destination, Object payload) {
+        record(partitionKey, destination, userName, payload);
+    }
+
+    private void record(String partitionKey, String destination, String userName, Object payload) {
+        OutboxEvent event = outboxRepository.save(OutboxEvent.builder()
+                .partitionKey(partitionKey)
+                .destination(destination)
+                .userName(userName)
+                .payload(toJson(payload))
+                .build());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcher.enqueue(event);
+                }
+            });
+        } else {
+            dispatcher.enqueue(event);
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize notification payload", e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.greencoin.service;
+
+import com.greencoin.exception.InvalidImageException;
+import com.greencoin.storage.BlobStore;
+import com.greencoin.storage.ImageReferences;
+import com.greencoin.storage.ImageType;
+import com.greencoin.storage.ImageUploadStream;
+import com.greencoin.storage.StoredBlob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+/**
+ * Moves report images into the blob store and resolves them for serving.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportImageService {
+
+    private static final String BASE64_MARKER = ";base64,";
+
+    private final BlobStore blobStore;
+    private final OrphanedImageCollector orphanedImages;
+
+    @Value("${storage.max-image-size:10MB}")
+    private DataSize maxImageSize;
+
+    /**
+     * Turn the image value sent by a client into what is stored on the report.
+     * Base64 data URLs are decoded once and stored by digest; references must
+     * point at a stored blob; any other value (an external URL) is kept as is.
+     */
+    public String ingest(String imageUrl) {
+        if (ImageReferences.isReference(imageUrl)) {
+            if (!blobStore.exists(ImageReferences.digestOf(imageUrl))) {
+                throw new InvalidImageException("Unknown image reference");
+            }
+            return imageUrl;
+        }
+        if (!ImageReferences.isDataUrl(imageUrl)) {
+            return imageUrl;
+        }
+
+        int marker = imageUrl.indexOf(BASE64_MARKER);
+        if (marker < 0) {
+            throw new InvalidImageException("Image data URL must be Base64 encoded");
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(imageUrl.substring(marker + BASE64_MARKER.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidImageException("Image data is not valid Base64", e);
+        }
+
+        try {
+            return store(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store report image", e);
+        }
+    }
+
+    /**
+     * Stream raw image bytes into the blob store, validating the format and
+     * size on the way, and return the reference to keep on the report.
+     */
+    public String store(InputStream content) throws IOException {
+        return ImageReferences.of(storeBlob(content).digest());
+    }
+
+    /**
+     * Like {@link #store}, for callers that may have to {@link #discard} the
+     * image again when the report isn't saved.
+     */
+    public StoredBlob storeBlob(InputStream content) throws IOException {
+        ImageUploadStream upload = new ImageUploadStream(content, maxImageSize.toBytes());
+        StoredBlob blob = blobStore.put(upload);
+        log.debug("Stored {} image {} ({} bytes, duplicate: {})",
+                upload.getType(), blob.digest(), blob.size(), blob.duplicate());
+        return blob;
+    }
+
+    /**
+     * Gives up an image stored by {@link #storeBlob} whose report was never
+     * saved. It is deleted later by the {@link OrphanedImageCollector}, unless
+     * a report saved meanwhile uses the same bytes. Duplicates are left alone:
+     * the same bytes were already stored for another upload.
+     */
+    public void discard(StoredBlob blob) {
+        if (!blob.duplicate()) {
+            orphanedImages.markOrphaned(blob.digest());
+        }
+    }
+
+    /**
+     * Media type of a stored image, sniffed from its first bytes.
+     */
+    public MediaType mediaTypeOf(Resource image) {
+        try (InputStream in = image.getInputStream()) {
+            byte[] head = in.readNBytes(ImageType.SIGNATURE_LENGTH);
+            ImageType type = ImageType.detect(head, head.length);
+            return type != null ? type.getMediaType() : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read stored image", e);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.greencoin.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.greencoin.dto.CreateReportRequest;
+import com.greencoin.dto.ReportImportResult;
+import com.greencoin.event.ReportLifecycleEvent;
+import com.greencoin.exception.InvalidImageException;
+import com.greencoin.metrics.ReportMetrics;
+import com.greencoin.model.User;
+import com.greencoin.model.WasteReport;
+import com.greencoin.repository.WasteReportRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of reports, e.g. dumping sites from a municipal spreadsheet.
+ *
+ * The body is read one row at a time and saved {@code reports.import.batch-size}
+ * rows per transaction, so memory use doesn't depend on the file size. Rows
+ * are validated like a {@link CreateReportRequest} to {@code POST /api/reports};
+ * a rejected row is reported and skipped, and never fails the rest.
+ *
+ * Imported reports are announced to the open report index (which drops
+ * itself rather than grow past {@code reports.index.max-size}), but not
+ * broadcast one by one: dashboards pick them up through /changes, which tells
+ * them to reload when that many reports arrive at once.
+ */
+@Slf4j
+@Service
+public class ReportImportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private final WasteReportRepository reportRepository;
+    private final ReportImageService imageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ReportMetrics reportMetrics;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+
+    @Value("${reports.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${reports.import.max-errors:1000}")
+    private int maxErrors;
+
+    // Room for a data URL of storage.max-image-size once Base64 encoded
+    @Value("${reports.import.max-line-length:16000000}")
+    private int maxLineLength;
+
+    public ReportImportService(WasteReportRepository reportRepository, ReportImageService imageService,
+            ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate, Validator validator,
+            ReportMetrics reportMetrics, ObjectMapper objectMapper) {
+        this.reportRepository = reportRepository;
+        this.imageService = imageService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.reportMetrics = reportMetrics;
+        this.jsonReader = objectMapper.readerFor(CreateReportRequest.class);
+        // Columns are matched by the header row; extra spreadsheet columns are ignored
+        this.csvReader = CsvMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .enable(CsvParser.Feature.TRIM_SPACES, CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .build()
+                .readerFor(CreateReportRequest.class)
+                .with(CsvSchema.emptySchema().withHeader());
+    }
+
+    /**
+     * Imports every row of {@code body} as an OPEN report by {@code reporter}.
+     * Imported reports award no coins when collected.
+     */
+    public ReportImportResult importReports(InputStream body, Charset charset, Format format, User reporter)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset));
+        // Spreadsheet exports often start with a byte order mark, which would hide the first column name
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+
+        RowSource rows = format == Format.CSV ? new CsvRows(csvReader.readValues(reader)) : new NdjsonRows(reader);
+        Progress progress = new Progress(maxErrors);
+        List<Row> batch = new ArrayList<>(batchSize);
+        try {
+            for (Row row = rows.next(); row != null; row = rows.next()) {
+                String error = row.error() != null ? row.error() : validate(row.request());
+                if (error != null) {
+                    progress.fail(row.line(), error);
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    save(batch, reporter, progress);
+                    batch.clear();
+                }
+            }
+            save(batch, reporter, progress);
+        } finally {
+            reportMetrics.recordImport(format.name().toLowerCase(), progress.imported, progress.failed);
+        }
+
+        log.info("Imported {} reports for user {} ({} rows rejected)", progress.imported, reporter.getId(),
+                progress.failed);
+        return progress.result();
+    }
+
+    private String validate(CreateReportRequest request) {
+        if (request == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<CreateReportRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void save(List<Row> batch, User reporter, Progress progress) {
+        List<WasteReport> reports = new ArrayList<>(batch.size());
+        List<Long> lines = new ArrayList<>(batch.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (Row row : batch) {
+            CreateReportRequest request = row.request();
+            String imageUrl;
+            try {
+                // Outside the transaction: data URLs are written to the blob store
+                imageUrl = imageService.ingest(request.getImageUrl());
+            } catch (InvalidImageException e) {
+                progress.fail(row.line(), e.getMessage());
+                continue;
+            }
+            reports.add(WasteReport.builder()
+                    .reporter(reporter)
+                    .latitude(request.getLatitude())
+                    .longitude(request.getLongitude())
+                    .imageUrl(imageUrl)
+                    .description(request.getDescription())
+                    .status(WasteReport.ReportStatus.OPEN)
+                    .coinsAwarded(0)
+                    .reportedAt(now)
+                    .build());
+            lines.add(row.line());
+        }
+        if (reports.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                reportRepository.saveAll(reports);
+                reports.forEach(report -> eventPublisher.publishEvent(ReportLifecycleEvent.created(report)));
+            });
+            progress.imported += reports.size();
+        } catch (DataAccessException | TransactionException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Import batch of {} rows from line {} failed: {}", reports.size(), lines.get(0), cause);
+            lines.forEach(line -> progress.fail(line, "Not saved: " + cause));
+        }
+    }
+
+    private record Row(long line, CreateReportRequest request, String error) {
+    }
+
+    private interface RowSource {
+        /**
+         * @return the next row, or null at the end of the body
+         */
+        Row next() throws IOException;
+    }
+
+    /**
+     * One JSON object per line; blank lines are skipped. A line longer than
+     * {@code reports.import.max-line-length} characters is rejected without
+     * being held in memory.
+     */
+    private final class NdjsonRows implements RowSource {
+        private final BufferedReader reader;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private boolean tooLong;
+        private long line;
+
+        NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = readLine();
+                line++;
+            } while (text != null && text.isBlank() && !tooLong);
+            if (text == null) {
+                return null;
+            }
+            if (tooLong) {
+                return new Row(line, null, "Line is longer than " + maxLineLength + " characters");
+            }
+            try {
+                return new Row(line, jsonReader.readValue(text), null);
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        /**
+         * Like {@link BufferedReader#readLine()}, but stops keeping characters
+         * past the limit; the rest of the line is skipped and {@code tooLong} set.
+         */
+        private String readLine() throws IOException {
+            StringBuilder text = null;
+            tooLong = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(0, reader.read(buffer, 0, buffer.length));
+                    position = 0;
+                    if (limit == 0) {
+                        return text == null ? null : text.toString();
+                    }
+                }
+                if (text == null) {
+                    text = new StringBuilder();
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                if (!tooLong && text.length() + (position - start) > maxLineLength) {
+                    tooLong = true;
+                    text.setLength(0);
+                    text.trimToSize();
+                }
+                if (!tooLong) {
+                    text.append(buffer, start, position - start);
+                }
+                if (position < limit) {
+                    position++;
+                    // readLine() drops a CRLF's carriage return too
+                    int end = text.length();
+                    if (end > 0 && text.charAt(end - 1) == '\r') {
+                        text.setLength(end - 1);
+                    }
+                    return text.toString();
+                }
+            }
+        }
+    }
+
+    /** A header row naming the columns (latitude, longitude, imageUrl, description), then one report per row */
+    private static final class CsvRows implements RowSource {
+        private final MappingIterator<CreateReportRequest> rows;
+        private boolean broken;
+
+        CsvRows(MappingIterator<CreateReportRequest> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (broken) {
+                return null;
+            }
+            try {
+                if (!rows.hasNextValue()) {
+                    return null;
+                }
+            } catch (JsonProcessingException e) {
+                // Not CSV past this point (e.g. an unclosed quote); report it and stop
+                broken = true;
+                return new Row(e.getLocation() == null ? 0 : e.getLocation().getLineNr() + 1, null,
+                        "Malformed CSV, rest of the file skipped: " + e.getOriginalMessage());
+            }
+            // Jackson's CSV parser counts lines from 0
+            long line = rows.getParser().currentTokenLocation().getLineNr() + 1;
+            try {
+                return new Row(line, rows.nextValue(), null);
+            } catch (JsonProcessingException e) {
+                // The iterator skips the rest of the bad row
+                return new Row(line, null, "Malformed row: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /** Counts and the first {@code maxErrors} rejected rows */
+    private static final class Progress {
+        private final int maxErrors;
+        private final List<ReportImportResult.RowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ReportImportResult.RowError(line, message));
+            }
+        }
+
+        ReportImportResult result() {
+            return new ReportImportResult(imported, failed, errors, failed > errors.size());
+        }
+    }
+}
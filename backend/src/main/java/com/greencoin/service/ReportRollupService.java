@@ -0,0 +1,392 @@
+package com.greencoin.service;
+
+import com.greencoin.dto.ReportHeatmap;
+import com.greencoin.event.ReportLifecycleEvent;
+import com.greencoin.geo.GeoGrid;
+import com.greencoin.model.WasteReport;
+import com.greencoin.threads.WorkerThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Report counts per geotile and hour, and per geotile and day, by current
+ * status, kept in {@code report_rollups} for the authority heatmap.
+ *
+ * Every lifecycle event moves one report between statuses, so it is applied
+ * as a delta: +1 for the new status and -1 for the previous one. Deltas are
+ * summed per transaction and upserted just before it commits, so a rollup row
+ * is only locked for the end of the transaction and never counts a report
+ * that was rolled back. Heatmap reads never touch {@code waste_reports}.
+ *
+ * After startup the daily rollups are checked against {@code waste_reports}
+ * in the background and rebuilt if they disagree, e.g. on first deployment.
+ * With several nodes starting at once, only one of them rebuilds. A rebuild
+ * corrects the rollups by the difference to the reports instead of replacing
+ * them, so report writes never wait for it.
+ */
+@Slf4j
+@Service
+public class ReportRollupService {
+
+    public enum Granularity {
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        LocalDateTime truncate(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        /** Start of the next bucket, or {@code time} if it starts one */
+        LocalDateTime roundUp(LocalDateTime time) {
+            LocalDateTime start = truncate(time);
+            return start.equals(time) ? time : start.plus(1, unit);
+        }
+    }
+
+    private static final String UPSERT = "INSERT INTO report_rollups " +
+            "(granularity, bucket, tile_row, tile_col, status, report_count) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (granularity, bucket, tile_row, tile_col, status) " +
+            "DO UPDATE SET report_count = report_rollups.report_count + EXCLUDED.report_count";
+
+    // Same arithmetic as GeoGrid.row and GeoGrid.column, in double precision so tiles match exactly
+    private static final String COUNT_TILES = "SELECT '%s' AS granularity, date_trunc('%s', reported_at) AS bucket, " +
+            "LEAST(?, GREATEST(0, floor((latitude::float8 + 90::float8) / ?)))::int AS tile_row, " +
+            "mod(mod(floor((longitude::float8 + 180::float8) / ?)::int, ?) + ?, ?) AS tile_col, " +
+            "status, count(*) AS report_count FROM waste_reports WHERE reported_at IS NOT NULL GROUP BY 2, 3, 4, 5";
+
+    // Reports minus rollups per key, numbered in KEY_ORDER. One statement, so one snapshot of both tables
+    private static final String COMPUTE_CORRECTIONS = "INSERT INTO report_rollup_corrections " +
+            "(id, granularity, bucket, tile_row, tile_col, status, report_count) " +
+            "SELECT row_number() OVER (ORDER BY granularity <> 'HOUR', bucket, tile_row, tile_col, " +
+            "status COLLATE \"C\"), granularity, bucket, tile_row, tile_col, status, SUM(report_count) FROM (" +
+            COUNT_TILES.formatted("HOUR", "hour") + " UNION ALL " + COUNT_TILES.formatted("DAY", "day") +
+            " UNION ALL SELECT granularity, bucket, tile_row, tile_col, status, -report_count FROM report_rollups" +
+            ") counts GROUP BY granularity, bucket, tile_row, tile_col, status HAVING SUM(report_count) <> 0";
+
+    private static final String APPLY_CORRECTIONS = "INSERT INTO report_rollups " +
+            "(granularity, bucket, tile_row, tile_col, status, report_count) " +
+            "SELECT granularity, bucket, tile_row, tile_col, status, report_count " +
+            "FROM report_rollup_corrections WHERE id > ? AND id <= ? ORDER BY id " +
+            "ON CONFLICT (granularity, bucket, tile_row, tile_col, status) " +
+            "DO UPDATE SET report_count = report_rollups.report_count + EXCLUDED.report_count";
+
+    private static final String COUNT_REPORTS = "SELECT count(*) FROM waste_reports WHERE reported_at IS NOT NULL";
+    private static final String SUM_DAILY_ROLLUPS =
+            "SELECT COALESCE(SUM(report_count), 0) FROM report_rollups WHERE granularity = 'DAY'";
+
+    // pg_advisory_xact_lock key held by the node rebuilding the rollups
+    private static final long REBUILD_LOCK_KEY = "report_rollups".hashCode();
+
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparing(RollupKey::granularity)
+            .thenComparing(RollupKey::bucket)
+            .thenComparingInt(RollupKey::row)
+            .thenComparingInt(RollupKey::column)
+            .thenComparing(RollupKey::status);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final TransactionTemplate stepTemplate;
+    private final WorkerThreads workerThreads;
+    private final GeoGrid grid;
+    // Resource key of the current transaction's pending deltas
+    private final Object pendingKey = new Object();
+
+    @Value("${reports.rollups.hourly-max-window:72h}")
+    private Duration hourlyMaxWindow;
+
+    @Value("${reports.rollups.max-window:400d}")
+    private Duration maxWindow;
+
+    @Value("${reports.rollups.max-cells:10000}")
+    private int maxCells;
+
+    @Value("${reports.rollups.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    @Value("${reports.rollups.rebuild-batch-size:5000}")
+    private int rebuildBatchSize;
+
+    public ReportRollupService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            WorkerThreads workerThreads, @Value("${reports.rollups.cell-degrees:0.01}") double cellDegrees) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.stepTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.stepTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.workerThreads = workerThreads;
+        this.grid = new GeoGrid(cellDegrees);
+    }
+
+    /**
+     * Runs in the publishing transaction, so the rollups commit or roll back
+     * together with the report.
+     */
+    @EventListener
+    public void onReportEvent(ReportLifecycleEvent event) {
+        if (event.reportedAt() == null) {
+            return;
+        }
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        Map<RollupKey, Long> deltas = inTransaction ? pendingDeltas() : new HashMap<>();
+        if (event.previousStatus() != null) {
+            add(deltas, event, event.previousStatus(), -1);
+        }
+        add(deltas, event, event.status(), 1);
+        if (!inTransaction) {
+            apply(deltas);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<RollupKey, Long> pendingDeltas() {
+        Map<RollupKey, Long> deltas = (Map<RollupKey, Long>) TransactionSynchronizationManager.getResource(pendingKey);
+        if (deltas != null) {
+            return deltas;
+        }
+        Map<RollupKey, Long> pending = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(pendingKey, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                apply(pending);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(pendingKey);
+            }
+        });
+        return pending;
+    }
+
+    private void add(Map<RollupKey, Long> deltas, ReportLifecycleEvent event, WasteReport.ReportStatus status,
+            long delta) {
+        int row = grid.row(event.latitude());
+        int column = grid.column(event.longitude());
+        for (Granularity granularity : Granularity.values()) {
+            deltas.merge(new RollupKey(granularity, granularity.truncate(event.reportedAt()), row, column,
+                    status.name()), delta, Long::sum);
+        }
+    }
+
+    private void apply(Map<RollupKey, Long> deltas) {
+        // In key order, so concurrent transactions lock shared rows in the same order and can't deadlock
+        List<Object[]> rows = deltas.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                .map(entry -> {
+                    RollupKey key = entry.getKey();
+                    return new Object[] { key.granularity().name(), Timestamp.valueOf(key.bucket()), key.row(),
+                            key.column(), key.status(), entry.getValue() };
+                })
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT, rows);
+        }
+        deltas.clear();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        workerThreads.named("report-rollup-backfill").newThread(this::backfill).start();
+    }
+
+    /**
+     * Rebuilds the rollups if the daily ones don't add up to the number of
+     * reports, or if {@code reports.rollups.rebuild-on-startup} is set.
+     *
+     * Both totals are read from one snapshot: a report and its deltas commit
+     * together, so a write in between can't make them look different.
+     */
+    public void backfill() {
+        try {
+            boolean consistent = Boolean.TRUE.equals(snapshotTemplate.execute(status -> isConsistent()));
+            if (rebuildOnStartup || !consistent) {
+                rebuild();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Report rollup backfill failed", e);
+        }
+    }
+
+    /**
+     * Brings every rollup in line with {@code waste_reports} while report
+     * writes keep going.
+     *
+     * One statement stores reports minus rollups per key in
+     * {@code report_rollup_corrections}. It reads both tables from one
+     * snapshot, in which every report's deltas are counted exactly when the
+     * report is. The differences are then added to the rollups in short
+     * transactions of {@code reports.rollups.rebuild-batch-size} rows. Deltas
+     * committed after the snapshot are added on top as usual, so the result
+     * is exact without ever locking the table. Batches lock rows in the same
+     * order as report writes, so the two can't deadlock.
+     *
+     * @return rollups corrected; 0 if they were right, or another node is rebuilding
+     */
+    public long rebuild() {
+        long start = System.nanoTime();
+        // Holds the lock on a connection of its own until the last batch; the steps commit separately
+        Long corrected = transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                    Boolean.class, REBUILD_LOCK_KEY))) {
+                return null;
+            }
+            long corrections = Objects.requireNonNull(stepTemplate.execute(step -> {
+                jdbcTemplate.execute("TRUNCATE report_rollup_corrections");
+                return (long) jdbcTemplate.update(COMPUTE_CORRECTIONS,
+                        grid.getRows() - 1, grid.getCellDegrees(), grid.getCellDegrees(),
+                        grid.getColumns(), grid.getColumns(), grid.getColumns(),
+                        grid.getRows() - 1, grid.getCellDegrees(), grid.getCellDegrees(),
+                        grid.getColumns(), grid.getColumns(), grid.getColumns());
+            }));
+            for (long applied = 0; applied < corrections; applied += rebuildBatchSize) {
+                long from = applied;
+                stepTemplate.executeWithoutResult(step ->
+                        jdbcTemplate.update(APPLY_CORRECTIONS, from, from + rebuildBatchSize));
+            }
+            stepTemplate.executeWithoutResult(step -> jdbcTemplate.execute("TRUNCATE report_rollup_corrections"));
+            return corrections;
+        });
+        if (corrected == null) {
+            log.info("Report rollups being rebuilt by another node, skipped");
+            return 0;
+        }
+        log.info("Rebuilt report rollups in {} ms, {} corrected", (System.nanoTime() - start) / 1_000_000, corrected);
+        return corrected;
+    }
+
+    private boolean isConsistent() {
+        Long reports = jdbcTemplate.queryForObject(COUNT_REPORTS, Long.class);
+        Long rolledUp = jdbcTemplate.queryForObject(SUM_DAILY_ROLLUPS, Long.class);
+        if (Objects.equals(reports, rolledUp)) {
+            return true;
+        }
+        log.info("Report rollups disagree with reports ({} reports, {} rolled up)", reports, rolledUp);
+        return false;
+    }
+
+    /**
+     * Report counts per cell of {@code cellDegrees} in the viewport, for
+     * reports made in [from, to). Hourly rollups are used for windows up to
+     * {@code reports.rollups.hourly-max-window}, and daily ones beyond that.
+     * Only whole buckets can be counted, so the window is widened to them:
+     * {@code from} is rounded down and {@code to} up to the hour or day. The
+     * result carries the window actually counted.
+     *
+     * @param cellDegrees a multiple of {@code reports.rollups.cell-degrees}
+     * @param statuses    statuses to count; null or empty counts all of them
+     * @throws IllegalStateException if the viewport or window is invalid or
+     *                               too large
+     */
+    public ReportHeatmap heatmap(double south, double west, double north, double east, LocalDateTime from,
+            LocalDateTime to, double cellDegrees, Collection<WasteReport.ReportStatus> statuses) {
+        if (south < -90 || north > 90 || south >= north) {
+            throw new IllegalStateException("Latitudes must satisfy -90 <= south < north <= 90");
+        }
+        if (west < -180 || east > 180 || west >= east) {
+            throw new IllegalStateException("Longitudes must satisfy -180 <= west < east <= 180");
+        }
+        if (!to.isAfter(from)) {
+            throw new IllegalStateException("to must be after from");
+        }
+        Duration window = Duration.between(from, to);
+        if (window.compareTo(maxWindow) > 0) {
+            throw new IllegalStateException("Window must not be longer than " + maxWindow.toDays() + " days");
+        }
+        long factor = Math.round(cellDegrees / grid.getCellDegrees());
+        if (factor < 1 || Math.abs(factor * grid.getCellDegrees() - cellDegrees) > 1e-9) {
+            throw new IllegalStateException("cellDegrees must be a multiple of " + grid.getCellDegrees());
+        }
+
+        long minRow = grid.row(south) / factor;
+        long maxRow = grid.row(north) / factor;
+        long minColumn = grid.column(west) / factor;
+        // An east edge of 180 is the last column, not the first one again
+        long maxColumn = (east >= 180 ? grid.getColumns() - 1 : grid.column(east)) / factor;
+        if ((maxRow - minRow + 1) * (maxColumn - minColumn + 1) > maxCells) {
+            throw new IllegalStateException("Viewport has more than " + maxCells + " cells; zoom in or use larger cells");
+        }
+
+        Granularity granularity = window.compareTo(hourlyMaxWindow) <= 0 ? Granularity.HOUR : Granularity.DAY;
+        LocalDateTime firstBucket = granularity.truncate(from);
+        LocalDateTime end = granularity.roundUp(to);
+
+        StringBuilder sql = new StringBuilder("SELECT tile_row / ? AS cell_row, tile_col / ? AS cell_col, status, " +
+                "SUM(report_count) AS reports FROM report_rollups " +
+                "WHERE granularity = ? AND bucket >= ? AND bucket < ? " +
+                "AND tile_row BETWEEN ? AND ? AND tile_col BETWEEN ? AND ?");
+        List<Object> args = new ArrayList<>(List.of(factor, factor, granularity.name(),
+                Timestamp.valueOf(firstBucket), Timestamp.valueOf(end),
+                minRow * factor, (maxRow + 1) * factor - 1, minColumn * factor, (maxColumn + 1) * factor - 1));
+        if (statuses != null && !statuses.isEmpty()) {
+            sql.append(" AND status IN (")
+                    .append(String.join(", ", Collections.nCopies(statuses.size(), "?"))).append(")");
+            statuses.forEach(status -> args.add(status.name()));
+        }
+        sql.append(" GROUP BY cell_row, cell_col, status HAVING SUM(report_count) > 0 ORDER BY cell_row, cell_col");
+
+        Map<Long, Map<String, Long>> countsByCell = new LinkedHashMap<>();
+        Map<String, Long> totals = new TreeMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            long cell = GeoGrid.key(rs.getInt("cell_row"), rs.getInt("cell_col"));
+            String status = rs.getString("status");
+            long reports = rs.getLong("reports");
+            countsByCell.computeIfAbsent(cell, key -> new TreeMap<>()).put(status, reports);
+            totals.merge(status, reports, Long::sum);
+        }, args.toArray());
+
+        double size = factor * grid.getCellDegrees();
+        List<ReportHeatmap.Cell> cells = new ArrayList<>(countsByCell.size());
+        countsByCell.forEach((cell, counts) -> cells.add(new ReportHeatmap.Cell(
+                edge(GeoGrid.rowOf(cell) * size - 90.0),
+                edge(GeoGrid.columnOf(cell) * size - 180.0),
+                counts.values().stream().mapToLong(Long::longValue).sum(),
+                counts)));
+        return new ReportHeatmap(granularity.name(), size, firstBucket, end, cells, totals);
+    }
+
+    /** Drops the floating point noise of row * size, e.g. 12.800000000000011 */
+    private static double edge(double degrees) {
+        return Math.rint(degrees * 1e9) / 1e9;
+    }
+
+    public double getCellDegrees() {
+        return grid.getCellDegrees();
+    }
+
+    private record RollupKey(Granularity granularity, LocalDateTime bucket, int row, int column, String status) {
+    }
+}
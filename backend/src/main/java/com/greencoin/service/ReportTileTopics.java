@@ -0,0 +1,43 @@
+package com.greencoin.service;
+
+import com.greencoin.geo.GeoGrid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Maps positions to geotile broadcast topics.
+ *
+ * Report events go to the topic of the tile they fall in; a client subscribes
+ * to every tile within {@code websocket.tiles.radius-km} of its position, so
+ * fan-out per event depends on how many collectors are nearby.
+ */
+@Component
+public class ReportTileTopics {
+
+    public static final String TILE_TOPIC_PREFIX = "/topic/reports/tile/";
+
+    private final GeoGrid grid;
+    private final double radiusKm;
+
+    public ReportTileTopics(@Value("${websocket.tiles.cell-degrees:0.1}") double cellDegrees,
+            @Value("${websocket.tiles.radius-km:10}") double radiusKm) {
+        this.grid = new GeoGrid(cellDegrees);
+        this.radiusKm = radiusKm;
+    }
+
+    public String topicFor(double latitude, double longitude) {
+        return topic(grid.cellKey(latitude, longitude));
+    }
+
+    public List<String> topicsAround(double latitude, double longitude) {
+        return grid.cellsWithin(latitude, longitude, radiusKm).stream()
+                .map(this::topic)
+                .toList();
+    }
+
+    private String topic(long cellKey) {
+        return TILE_TOPIC_PREFIX + GeoGrid.rowOf(cellKey) + "-" + GeoGrid.columnOf(cellKey);
+    }
+}
@@ -0,0 +1,75 @@
+package com.greencoin.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.greencoin.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of users keyed by Firebase UID.
+ *
+ * Callers always get their own copy, so mutating a returned User never
+ * leaks into the cache. Anything that writes a user row must call
+ * {@link #evictAfterCommit(String)}; the TTL bounds staleness otherwise
+ * (e.g. writes made by another instance).
+ */
+@Component
+public class UserCache {
+
+    private final Cache<String, User> usersByUid;
+
+    public UserCache(
+            @Value("${users.cache.max-size:10000}") long maxSize,
+            @Value("${users.cache.ttl:30s}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.usersByUid = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByUid, "users");
+    }
+
+    /**
+     * Loads outside the cache's own locking, so a slow query never blocks
+     * lookups for other users. Missing users are not cached.
+     */
+    public Optional<User> get(String firebaseUid, Function<String, Optional<User>> loader) {
+        User cached = usersByUid.getIfPresent(firebaseUid);
+        if (cached != null) {
+            return Optional.of(cached.toBuilder().build());
+        }
+        Optional<User> loaded = loader.apply(firebaseUid);
+        loaded.ifPresent(user -> usersByUid.put(firebaseUid, user.toBuilder().build()));
+        return loaded;
+    }
+
+    public void evict(String firebaseUid) {
+        usersByUid.invalidate(firebaseUid);
+    }
+
+    /**
+     * Evicts now and again once the surrounding transaction commits, so a
+     * concurrent reader can't re-cache the pre-commit row.
+     */
+    public void evictAfterCommit(String firebaseUid) {
+        evict(firebaseUid);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(firebaseUid);
+                }
+            });
+        }
+    }
+}
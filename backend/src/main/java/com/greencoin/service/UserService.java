@@ -1,13 +1,17 @@
 package com.greencoin.service;
 
+import com.greencoin.model.CoinTransaction;
 import com.greencoin.model.User;
+import com.greencoin.repository.CoinTransactionRepository;
 import com.greencoin.repository.UserRepository;
 import com.greencoin.repository.CollectorWhitelistRepository;
+import com.greencoin.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Slf4j
@@ -17,9 +21,24 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final CollectorWhitelistRepository whitelistRepository;
+    private final CoinTransactionRepository transactionRepository;
+    private final UserCache userCache;
 
     public Optional<User> getUserByFirebaseUid(String firebaseUid) {
-        return userRepository.findByFirebaseUid(firebaseUid);
+        return userCache.get(firebaseUid, userRepository::findByFirebaseUid);
+    }
+
+    /**
+     * Id of the current user, taken from the principal when the token filter
+     * already resolved it
+     */
+    public Long getUserId(AuthenticatedUser principal) {
+        if (principal.userId() != null) {
+            return principal.userId();
+        }
+        return getUserByFirebaseUid(principal.getName())
+                .map(User::getId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     public User getUserById(Long id) {
@@ -33,6 +52,7 @@ public class UserService {
 
     @Transactional
     public User syncUserWithFirebase(String firebaseUid, String email, String displayName, String photoUrl) {
+        userCache.evictAfterCommit(firebaseUid);
         return userRepository.findByFirebaseUid(firebaseUid)
                 .map(user -> {
                     user.setDisplayName(displayName);
@@ -56,10 +76,16 @@ public class UserService {
                 });
     }
 
+    /**
+     * Manual balance adjustment; recorded in the ledger like any other change
+     */
     @Transactional
     public void updateCoinBalance(Long userId, Integer amount) {
         User user = getUserById(userId);
-        user.setCoinBalance(user.getCoinBalance() + amount);
-        userRepository.save(user);
+        CoinTransaction.TransactionType type = amount >= 0 ? CoinTransaction.TransactionType.EARNED
+                : CoinTransaction.TransactionType.REDEEMED;
+        transactionRepository.applyBalanceChange(userId, amount, type.name(), null, "ADJUSTMENT", LocalDateTime.now())
+                .orElseThrow(() -> new RuntimeException("Insufficient balance"));
+        userCache.evictAfterCommit(user.getFirebaseUid());
     }
 }
@@ -1,16 +1,32 @@
 package com.greencoin.service;
 
 import com.greencoin.dto.CreateReportRequest;
+import com.greencoin.dto.CursorPage;
+import com.greencoin.dto.PageCursor;
+import com.greencoin.dto.ReportChanges;
+import com.greencoin.dto.WasteReportCard;
+import com.greencoin.event.ReportLifecycleEvent;
+import com.greencoin.exception.ReportConflictException;
+import com.greencoin.geo.GeoGrid;
+import com.greencoin.metrics.ReportMetrics;
 import com.greencoin.model.User;
 import com.greencoin.model.WasteReport;
 import com.greencoin.repository.WasteReportRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -21,6 +37,16 @@ public class WasteReportService {
     private final UserService userService;
     private final CoinService coinService;
     private final WebSocketService webSocketService;
+    private final ReportImageService imageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OpenReportIndex openReportIndex;
+    private final ReportMetrics reportMetrics;
+
+    @Value("${reports.nearby.max-results:200}")
+    private int maxNearbyResults;
+
+    @Value("${reports.changes.max-items:500}")
+    private int maxChangeItems;
 
     @Transactional
     public WasteReport createReport(CreateReportRequest request, String firebaseUid) {
@@ -31,7 +57,7 @@ public class WasteReportService {
                 .reporter(reporter)
                 .latitude(request.getLatitude())
                 .longitude(request.getLongitude())
-                .imageUrl(request.getImageUrl())
+                .imageUrl(imageService.ingest(request.getImageUrl()))
                 .description(request.getDescription())
                 .status(WasteReport.ReportStatus.OPEN)
                 .coinsAwarded(10) // Fixed amount or based on logic
@@ -39,28 +65,90 @@ public class WasteReportService {
                 .build();
 
         WasteReport savedReport = reportRepository.save(report);
+        eventPublisher.publishEvent(ReportLifecycleEvent.created(savedReport));
         webSocketService.notifyNewReport(savedReport);
         return savedReport;
     }
 
-    public List<WasteReport> getAvailableReports() {
-        return reportRepository.findByStatus(WasteReport.ReportStatus.OPEN);
+    public CursorPage<WasteReportCard> getAvailableReports(PageCursor cursor, int limit) {
+        return toPage(reportRepository.findCardsByStatus(WasteReport.ReportStatus.OPEN,
+                cursor.timestamp(), cursor.id(), PageRequest.ofSize(limit + 1)), limit);
+    }
+
+    /**
+     * OPEN reports within {@code radiusKm}, nearest first. Served from the
+     * in-memory index; the database is only scanned until the index is built.
+     */
+    public List<WasteReportCard> getNearbyReports(double lat, double lon, double radiusKm) {
+        if (!openReportIndex.isReady()) {
+            return reportMetrics.recordNearby("database", () -> reportRepository.findNearbyCards(lat, lon, radiusKm)
+                    .stream()
+                    .sorted(Comparator.comparingDouble(card -> GeoGrid.distanceKm(lat, lon,
+                            card.latitude().doubleValue(), card.longitude().doubleValue())))
+                    .limit(maxNearbyResults)
+                    .collect(Collectors.toList()));
+        }
+        return reportMetrics.recordNearby("index", () -> findNearbyInIndex(lat, lon, radiusKm));
+    }
+
+    private List<WasteReportCard> findNearbyInIndex(double lat, double lon, double radiusKm) {
+        List<OpenReportIndex.Hit> hits = openReportIndex.findWithin(lat, lon, radiusKm, maxNearbyResults);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, WasteReportCard> cards = reportRepository
+                .findCardsByIdInAndStatus(hits.stream().map(OpenReportIndex.Hit::reportId).toList(),
+                        WasteReport.ReportStatus.OPEN)
+                .stream()
+                .collect(Collectors.toMap(WasteReportCard::id, Function.identity()));
+
+        return hits.stream()
+                .map(hit -> cards.get(hit.reportId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public CursorPage<WasteReportCard> getReportsByUser(Long userId, PageCursor cursor, int limit) {
+        return toPage(reportRepository.findCardsByReporterId(userId,
+                cursor.timestamp(), cursor.id(), PageRequest.ofSize(limit + 1)), limit);
     }
 
-    public List<WasteReport> getNearbyReports(Double lat, Double lon) {
-        return reportRepository.findNearby(lat, lon, 10.0); // 10km radius
+    public CursorPage<WasteReportCard> getReportsByCollector(Long collectorId, PageCursor cursor, int limit) {
+        return toPage(reportRepository.findCardsByCollectorId(collectorId,
+                cursor.timestamp(), cursor.id(), PageRequest.ofSize(limit + 1)), limit);
     }
 
-    public List<WasteReport> getReportsByUser(Long userId) {
-        return reportRepository.findByReporterId(userId);
+    /**
+     * Delta sync for reconnecting clients.
+     *
+     * The position handed out is the oldest transaction still in progress, not
+     * the highest change seen: a transaction that wrote earlier but commits
+     * later (a long import batch, say) has an id at or above it, so the next
+     * sync still returns its rows. It is taken before the rows are read, so
+     * anything that commits in between is read twice at worst; clients apply
+     * items idempotently.
+     */
+    public ReportChanges<WasteReportCard> getChangesSince(Long since) {
+        long watermark = reportRepository.findChangeWatermark();
+        if (since == null || since > watermark) {
+            return ReportChanges.fullReload(watermark);
+        }
+
+        List<WasteReportCard> items = reportRepository.findCardsChangedSince(
+                since, PageRequest.ofSize(maxChangeItems + 1));
+        if (items.size() > maxChangeItems) {
+            return ReportChanges.fullReload(watermark);
+        }
+        return new ReportChanges<>(items, watermark, false);
     }
 
-    public List<WasteReport> getReportsByCollector(Long collectorId) {
-        return reportRepository.findByCollectorId(collectorId);
+    private CursorPage<WasteReportCard> toPage(List<WasteReportCard> rows, int limit) {
+        return CursorPage.of(rows, limit, card -> new PageCursor(card.reportedAt(), card.id()));
     }
 
     public WasteReport getReportById(Long id) {
-        return reportRepository.findById(id)
+        return reportRepository.findWithUsersById(id)
                 .orElseThrow(() -> new RuntimeException("Report not found"));
     }
 
@@ -69,18 +157,17 @@ public class WasteReportService {
         User collector = userService.getUserByFirebaseUid(firebaseUid)
                 .orElseThrow(() -> new RuntimeException("Collector not found"));
 
-        WasteReport report = getReportById(reportId);
-        log.info("Pickup attempt for report ID: {} | Current Status: {}", reportId, report.getStatus());
+        log.info("Pickup attempt for report ID: {} by collector {}", reportId, collector.getId());
 
-        if (report.getStatus() != WasteReport.ReportStatus.OPEN) {
-            throw new RuntimeException("Report is not available for picking. Current status: " + report.getStatus());
+        // Losers of the race get a 409 without ever loading the report
+        if (reportRepository.claimOpenReport(reportId, collector.getId(), LocalDateTime.now()) == 0) {
+            reportMetrics.pickConflict();
+            throw new ReportConflictException("Report is not available for picking");
         }
 
-        report.setStatus(WasteReport.ReportStatus.PICKING);
-        report.setCollector(collector);
-        report.setPickedAt(LocalDateTime.now());
-
-        WasteReport saved = reportRepository.save(report);
+        WasteReport saved = getReportById(reportId);
+        eventPublisher.publishEvent(ReportLifecycleEvent.statusChanged(ReportLifecycleEvent.Type.PICKED, saved,
+                WasteReport.ReportStatus.OPEN));
         webSocketService.notifyStatusChange(saved);
         return saved;
     }
@@ -97,8 +184,13 @@ public class WasteReportService {
 
         WasteReport saved = reportRepository.save(report);
 
-        // Award coins to reporter
-        coinService.awardCoins(report.getReporter(), report.getCoinsAwarded(), report.getId());
+        // Award coins to reporter; imported reports have no citizen to award
+        if (report.getCoinsAwarded() > 0) {
+            coinService.awardCoins(report.getReporter(), report.getCoinsAwarded(), report.getId());
+        }
+
+        eventPublisher.publishEvent(ReportLifecycleEvent.statusChanged(ReportLifecycleEvent.Type.COLLECTED, saved,
+                WasteReport.ReportStatus.PICKING));
 
         webSocketService.notifyStatusChange(saved);
         return saved;
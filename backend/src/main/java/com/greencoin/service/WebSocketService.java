@@ -4,28 +4,32 @@ import com.greencoin.model.User;
 import com.greencoin.model.WasteReport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Builds client notifications. They are recorded in the outbox within the
+ * caller's transaction and only sent once it commits.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class WebSocketService {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final OutboxService outboxService;
+    private final ReportTileTopics tileTopics;
 
     public void notifyNewReport(WasteReport report) {
-        messagingTemplate.convertAndSend("/topic/reports/new", createLightweightReportMap(report));
+        outboxService.record(reportKey(report), tileTopic(report), createLightweightReportMap(report));
     }
 
     public void notifyStatusChange(WasteReport report) {
         Object payload = createLightweightReportMap(report);
-        messagingTemplate.convertAndSend("/topic/reports/" + report.getId() + "/status", payload);
-        // Also notify general topic for dashboard updates (sync with "new" if needed)
-        messagingTemplate.convertAndSend("/topic/reports/new", payload);
+        outboxService.record(reportKey(report), "/topic/reports/" + report.getId() + "/status", payload);
+        // Also notify the report's tile so nearby dashboards update
+        outboxService.record(reportKey(report), tileTopic(report), payload);
     }
 
     public void notifyCoinUpdate(User user, Integer amount, Integer newBalance) {
@@ -37,10 +41,18 @@ public class WebSocketService {
         log.info("Sending coin update to user {}: {} coins. New balance: {}",
                 user.getEmail(), amount, newBalance);
 
-        messagingTemplate.convertAndSendToUser(user.getFirebaseUid(), "/queue/coins", payload);
+        outboxService.recordForUser("user:" + user.getId(), user.getFirebaseUid(), "/queue/coins", payload);
     }
 
-    private Map<String, Object> createLightweightReportMap(WasteReport report) {
+    private String tileTopic(WasteReport report) {
+        return tileTopics.topicFor(report.getLatitude().doubleValue(), report.getLongitude().doubleValue());
+    }
+
+    private String reportKey(WasteReport report) {
+        return "report:" + report.getId();
+    }
+
+    static Map<String, Object> createLightweightReportMap(WasteReport report) {
         Map<String, Object> map = new HashMap<>();
         map.put("id", report.getId());
         map.put("status", report.getStatus().name());
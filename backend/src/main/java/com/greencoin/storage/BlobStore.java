@@ -0,0 +1,48 @@
+package com.greencoin.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Content-addressed blob storage.
+ *
+ * Blobs are keyed by the hex SHA-256 digest of their bytes, so storing the same
+ * content twice keeps a single copy. A blob can also have named variants
+ * (such as thumbnails) that are stored alongside it.
+ */
+public interface BlobStore {
+
+    /**
+     * Store the stream's content and return its digest. The stream is read to
+     * the end but not closed.
+     */
+    StoredBlob put(InputStream content) throws IOException;
+
+    default StoredBlob put(byte[] content) throws IOException {
+        return put(new ByteArrayInputStream(content));
+    }
+
+    Optional<Resource> get(String digest);
+
+    boolean exists(String digest);
+
+    /**
+     * Remove a blob (not its variants) unless it was stored since
+     * {@code cutoff}; storing a duplicate counts. The caller must have checked
+     * that nothing references it.
+     *
+     * @return false when the blob was stored since the cutoff and was kept
+     */
+    boolean deleteIfStoredBefore(String digest, Instant cutoff) throws IOException;
+
+    void putVariant(String digest, String variant, byte[] content) throws IOException;
+
+    Optional<Resource> getVariant(String digest, String variant);
+
+    boolean existsVariant(String digest, String variant);
+}
@@ -0,0 +1,55 @@
+package com.greencoin.storage;
+
+/**
+ * Helpers for the short image references kept in {@code waste_reports.image_url}.
+ *
+ * A stored image is referenced as {@code sha256:<digest>}. Legacy rows may still
+ * hold a Base64 data URL or an external URL until they are migrated.
+ */
+public final class ImageReferences {
+
+    public static final String PREFIX = "sha256:";
+    public static final String PUBLIC_PATH = "/api/images/";
+
+    private ImageReferences() {
+    }
+
+    public static String of(String digest) {
+        return PREFIX + digest;
+    }
+
+    public static boolean isReference(String value) {
+        return value != null && value.startsWith(PREFIX);
+    }
+
+    public static boolean isDataUrl(String value) {
+        return value != null && value.startsWith("data:");
+    }
+
+    public static String digestOf(String reference) {
+        return reference.substring(PREFIX.length());
+    }
+
+    /**
+     * Map a stored value to the URL clients should load. References become a
+     * path under {@code /api/images}; anything else is returned unchanged.
+     */
+    public static String toPublicUrl(String stored) {
+        if (isReference(stored)) {
+            return PUBLIC_PATH + digestOf(stored);
+        }
+        return stored;
+    }
+
+    /**
+     * Map a stored value to the URL of one of its derivatives. Legacy Base64
+     * data has no derivatives and is too large for list payloads, so it maps
+     * to null.
+     */
+    public static String toPublicUrl(String stored, ImageVariant variant) {
+        if (isReference(stored)) {
+            return PUBLIC_PATH + digestOf(stored) + "/" + variant.getKey();
+        }
+        return isDataUrl(stored) ? null : stored;
+    }
+}
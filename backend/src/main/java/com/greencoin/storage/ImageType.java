@@ -0,0 +1,49 @@
+package com.greencoin.storage;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Image formats accepted for waste report photos, detected from magic bytes.
+ */
+public enum ImageType {
+    JPEG(MediaType.IMAGE_JPEG),
+    PNG(MediaType.IMAGE_PNG),
+    GIF(MediaType.IMAGE_GIF),
+    WEBP(MediaType.parseMediaType("image/webp"));
+
+    /** Bytes needed to tell every supported format apart. */
+    public static final int SIGNATURE_LENGTH = 12;
+
+    private final MediaType mediaType;
+
+    ImageType(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Detect the image type from the first bytes of the content.
+     *
+     * @return the type, or null when the bytes are not a supported image
+     */
+    public static ImageType detect(byte[] head, int length) {
+        if (length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return JPEG;
+        }
+        if (length >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G'
+                && head[4] == 0x0D && head[5] == 0x0A && head[6] == 0x1A && head[7] == 0x0A) {
+            return PNG;
+        }
+        if (length >= 4 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return GIF;
+        }
+        if (length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return WEBP;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,93 @@
+package com.greencoin.storage;
+
+import com.greencoin.exception.ImageTooLargeException;
+import com.greencoin.exception.InvalidImageException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that validates an image upload while it is being read.
+ *
+ * The magic bytes are checked as soon as the stream is opened, and reading
+ * fails once more than {@code maxBytes} have been consumed, so a bad upload is
+ * rejected without buffering it.
+ */
+public class ImageUploadStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private final byte[] head = new byte[ImageType.SIGNATURE_LENGTH];
+    private final int headLength;
+    private final ImageType type;
+    private int headPosition;
+    private long count;
+
+    public ImageUploadStream(InputStream in, long maxBytes) throws IOException {
+        super(in);
+        this.maxBytes = maxBytes;
+        this.headLength = in.readNBytes(head, 0, head.length);
+        this.type = ImageType.detect(head, headLength);
+        if (type == null) {
+            throw new InvalidImageException("Unsupported image format");
+        }
+        this.count = headLength;
+        checkSize();
+    }
+
+    public ImageType getType() {
+        return type;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (headPosition < headLength) {
+            return head[headPosition++] & 0xFF;
+        }
+        int b = super.read();
+        if (b != -1) {
+            count++;
+            checkSize();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (headPosition < headLength) {
+            int n = Math.min(len, headLength - headPosition);
+            System.arraycopy(head, headPosition, b, off, n);
+            headPosition += n;
+            return n;
+        }
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count += n;
+            checkSize();
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        throw new IOException("skip is not supported on image uploads");
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void checkSize() {
+        if (count > maxBytes) {
+            throw new ImageTooLargeException(maxBytes);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.greencoin.storage;
+
+/**
+ * Fixed-size derivatives generated for every stored report image.
+ */
+public enum ImageVariant {
+    THUMB("thumb", 160),
+    MEDIUM("medium", 640);
+
+    private final String key;
+    private final int maxDimension;
+
+    ImageVariant(String key, int maxDimension) {
+        this.key = key;
+        this.maxDimension = maxDimension;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /** Longest edge of the derivative in pixels. */
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    /**
+     * @return the variant with this key, or null if there is none
+     */
+    public static ImageVariant fromKey(String key) {
+        for (ImageVariant variant : values()) {
+            if (variant.key.equals(key)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+}
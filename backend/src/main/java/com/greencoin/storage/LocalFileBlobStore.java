@@ -0,0 +1,183 @@
+package com.greencoin.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Blob store backed by the local filesystem.
+ *
+ * Blobs live under {@code <root>/ab/cd/<digest>} and their variants under
+ * {@code <root>/ab/cd/<digest>.<variant>}. Content is written to a temp file
+ * and then moved into place, so readers never see a partial blob.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalFileBlobStore implements BlobStore {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final Pattern VARIANT = Pattern.compile("[a-z0-9]+");
+
+    private final Path root;
+    private final Path tmpDir;
+
+    public LocalFileBlobStore(@Value("${storage.local.root:./data/blobs}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmpDir = this.root.resolve("tmp");
+        Files.createDirectories(this.tmpDir);
+        log.info("Local blob store initialized at {}", this.root);
+    }
+
+    @Override
+    public StoredBlob put(InputStream content) throws IOException {
+        MessageDigest sha256 = newDigest();
+        Path tmp = Files.createTempFile(tmpDir, "blob-", ".part");
+        long size = 0;
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    sha256.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+
+            String digest = HexFormat.of().formatHex(sha256.digest());
+            Path target = pathFor(digest);
+            if (touch(target)) {
+                return new StoredBlob(digest, size, true);
+            }
+
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Another upload of the same content won the race
+                touch(target);
+                return new StoredBlob(digest, size, true);
+            }
+            return new StoredBlob(digest, size, false);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public Optional<Resource> get(String digest) {
+        if (!StoredBlob.isDigest(digest)) {
+            return Optional.empty();
+        }
+        Path path = pathFor(digest);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public boolean exists(String digest) {
+        return StoredBlob.isDigest(digest) && Files.isRegularFile(pathFor(digest));
+    }
+
+    @Override
+    public boolean deleteIfStoredBefore(String digest, Instant cutoff) throws IOException {
+        if (!StoredBlob.isDigest(digest)) {
+            return true;
+        }
+        Path path = pathFor(digest);
+        try {
+            if (!Files.getLastModifiedTime(path).toInstant().isBefore(cutoff)) {
+                return false;
+            }
+            Files.delete(path);
+        } catch (NoSuchFileException e) {
+            // Already gone
+        }
+        return true;
+    }
+
+    @Override
+    public void putVariant(String digest, String variant, byte[] content) throws IOException {
+        Path target = variantPathFor(digest, variant);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(tmpDir, "variant-", ".part");
+        try {
+            Files.write(tmp, content);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public Optional<Resource> getVariant(String digest, String variant) {
+        if (!isValidVariant(digest, variant)) {
+            return Optional.empty();
+        }
+        Path path = variantPathFor(digest, variant);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public boolean existsVariant(String digest, String variant) {
+        return isValidVariant(digest, variant) && Files.isRegularFile(variantPathFor(digest, variant));
+    }
+
+    private static boolean isValidVariant(String digest, String variant) {
+        return StoredBlob.isDigest(digest) && variant != null && VARIANT.matcher(variant).matches();
+    }
+
+    private Path variantPathFor(String digest, String variant) {
+        if (!isValidVariant(digest, variant)) {
+            throw new IllegalArgumentException("Invalid blob variant: " + digest + "." + variant);
+        }
+        return pathFor(digest).resolveSibling(digest + "." + variant);
+    }
+
+    /**
+     * Marks an existing blob as stored again, so {@link #deleteIfStoredBefore}
+     * keeps it for the upload that just found it.
+     *
+     * @return false when there is no such blob
+     */
+    private static boolean touch(Path blob) throws IOException {
+        try {
+            Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private Path pathFor(String digest) {
+        return root.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
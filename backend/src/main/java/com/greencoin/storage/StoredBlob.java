@@ -0,0 +1,19 @@
+package com.greencoin.storage;
+
+import java.util.regex.Pattern;
+
+/**
+ * Result of storing a blob.
+ *
+ * @param digest    hex SHA-256 of the content
+ * @param size      content length in bytes
+ * @param duplicate true when identical content was already stored
+ */
+public record StoredBlob(String digest, long size, boolean duplicate) {
+
+    private static final Pattern DIGEST = Pattern.compile("[0-9a-f]{64}");
+
+    public static boolean isDigest(String value) {
+        return value != null && DIGEST.matcher(value).matches();
+    }
+}
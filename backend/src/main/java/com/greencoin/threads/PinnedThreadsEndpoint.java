@@ -0,0 +1,39 @@
+package com.greencoin.threads;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint /actuator/pinnedthreads: where virtual threads were pinned,
+ * longest total pinned time first. Only present with virtual threads enabled.
+ */
+@Component
+@Endpoint(id = "pinnedthreads")
+@ConditionalOnThreading(Threading.VIRTUAL)
+@RequiredArgsConstructor
+public class PinnedThreadsEndpoint {
+
+    private final VirtualThreadPinningMonitor monitor;
+
+    @ReadOperation
+    public List<SiteView> sites() {
+        return monitor.getSites().stream()
+                .map(site -> new SiteView(site.getSite(), site.getCaller(), site.getTimer().count(),
+                        (long) site.getTimer().totalTime(TimeUnit.MILLISECONDS), site.getMaxMillis(),
+                        site.getStack()))
+                .sorted(Comparator.comparingLong(SiteView::totalMillis).reversed())
+                .toList();
+    }
+
+    public record SiteView(String site, String caller, long count, long totalMillis, long maxMillis,
+            String stack) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.greencoin.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads pinned to their carrier thread.
+ *
+ * A virtual thread that blocks inside {@code synchronized} (or a native frame)
+ * cannot unmount, so it holds one of the few carrier threads for the whole
+ * wait. Pinning longer than {@code virtual-threads.pinning.threshold} is read
+ * from JFR's {@code jdk.VirtualThreadPinned} event and grouped by the frame
+ * that pinned: counted in the {@code jvm.threads.virtual.pinned} timer, logged
+ * with its stack the first time, and listed at /actuator/pinnedthreads.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String OTHER_SITE = "other";
+    private static final int STACK_DEPTH = 20;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, PinningSite> sites = new ConcurrentHashMap<>();
+    private volatile RecordingStream stream;
+
+    @Value("${virtual-threads.pinning.threshold:20ms}")
+    private Duration threshold;
+
+    @Value("${virtual-threads.pinning.max-sites:100}")
+    private int maxSites;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+        stream = recording;
+        log.info("Reporting virtual threads pinned for more than {} ms", threshold.toMillis());
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    public Collection<PinningSite> getSites() {
+        return sites.values();
+    }
+
+    void record(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null
+                ? List.of() : event.getStackTrace().getFrames();
+        String site = describe(firstFrame(frames, false));
+        if (!sites.containsKey(site) && sites.size() >= maxSites) {
+            site = OTHER_SITE;
+        }
+
+        Duration duration = event.getDuration();
+        PinningSite pinningSite = sites.computeIfAbsent(site, key -> {
+            String caller = describe(firstFrame(frames, true));
+            String stack = frames.stream().limit(STACK_DEPTH)
+                    .map(VirtualThreadPinningMonitor::describe)
+                    .collect(Collectors.joining("\n\tat ", "\tat ", ""));
+            log.warn("Virtual thread {} pinned for {} ms at {} (called from {}):\n{}",
+                    event.getThread() == null ? "?" : event.getThread().getJavaName(),
+                    duration.toMillis(), key, caller, stack);
+            Timer timer = Timer.builder("jvm.threads.virtual.pinned")
+                    .description("Virtual threads pinned to their carrier past the threshold")
+                    .tag("site", key)
+                    .register(meterRegistry);
+            return new PinningSite(key, caller, stack, timer);
+        });
+        pinningSite.timer.record(duration);
+        pinningSite.maxMillis = Math.max(pinningSite.maxMillis, duration.toMillis());
+    }
+
+    /**
+     * The frame responsible: the first one outside the JDK, or with
+     * {@code application} the first of ours (the code that made the call).
+     */
+    private static RecordedFrame firstFrame(List<RecordedFrame> frames, boolean application) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            boolean jdk = type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+            if (application ? type.startsWith("com.greencoin.") : !jdk) {
+                return frame;
+            }
+        }
+        return application || frames.isEmpty() ? null : frames.get(0);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        if (frame == null) {
+            return "unknown";
+        }
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+    @Getter
+    public static class PinningSite {
+        private final String site;
+        private final String caller;
+        private final String stack;
+        private final Timer timer;
+        private volatile long maxMillis;
+
+        PinningSite(String site, String caller, String stack, Timer timer) {
+            this.site = site;
+            this.caller = caller;
+            this.stack = stack;
+            this.timer = timer;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.greencoin.threads;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads behind our own executors.
+ *
+ * With {@code spring.threads.virtual.enabled} Spring Boot runs Tomcat requests,
+ * {@code @Scheduled} jobs and the default task executor on virtual threads; this
+ * does the same for the outbox lanes, the STOMP channels and background jobs.
+ * Pools keep their size and queue bounds either way, so backpressure is unchanged.
+ */
+@Component
+public class WorkerThreads {
+
+    private final boolean virtual;
+
+    public WorkerThreads(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /** Every thread gets the same name; for single-thread executors. */
+    public ThreadFactory named(String name) {
+        return builder().name(name).factory();
+    }
+
+    /** Threads are named {@code prefix1}, {@code prefix2}, ... */
+    public ThreadFactory numbered(String prefix) {
+        return builder().name(prefix, 1).factory();
+    }
+
+    /**
+     * Executor for a STOMP message channel, run on virtual threads. Spring's
+     * default channel pool has twice as many threads as cores, so a blocking
+     * handler (token verification on CONNECT, a slow socket write) stalls every
+     * session behind it; virtual threads let the pool be much larger.
+     */
+    public ThreadPoolTaskExecutor virtualChannelExecutor(String prefix, int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadFactory(Thread.ofVirtual().name(prefix, 1).factory());
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private Thread.Builder builder() {
+        return virtual ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+    }
+}
@@ -0,0 +1,70 @@
+package com.greencoin.websocket;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Records how many subscriptions each broadcast reaches
+ * ({@code websocket.fanout}), by destination kind.
+ *
+ * Registered on the broker channel. Only the simple broker is inspected: in
+ * relay mode the fan-out happens in the external broker and nothing is recorded.
+ */
+@Component
+public class BrokerFanoutMetrics implements ChannelInterceptor {
+
+    private final ObjectProvider<SimpleBrokerMessageHandler> simpleBroker;
+    private final Meter.MeterProvider<DistributionSummary> fanout;
+
+    public BrokerFanoutMetrics(ObjectProvider<SimpleBrokerMessageHandler> simpleBroker,
+            MeterRegistry meterRegistry) {
+        this.simpleBroker = simpleBroker;
+        this.fanout = DistributionSummary.builder("websocket.fanout")
+                .description("Subscriptions a published frame is delivered to")
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        // /user/... frames pass through here once more after being resolved to a session's queue
+        if (destination == null || destination.startsWith("/user/")
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        SimpleBrokerMessageHandler broker = simpleBroker.getIfAvailable();
+        if (broker == null || !broker.isRunning()) {
+            return message;
+        }
+        int subscriptions = broker.getSubscriptionRegistry().findSubscriptions(message).values().stream()
+                .mapToInt(List::size)
+                .sum();
+        fanout.withTags("destination", destinationKind(destination)).record(subscriptions);
+        return message;
+    }
+
+    /** Destination tag with ids and tiles stripped, so cardinality stays fixed */
+    static String destinationKind(String destination) {
+        if (destination.startsWith("/topic/reports/tile/")) {
+            return "report-tile";
+        }
+        if (destination.startsWith("/topic/reports/")) {
+            return "report-status";
+        }
+        if (destination.startsWith("/queue/")) {
+            return "user-queue";
+        }
+        return "other";
+    }
+}
@@ -0,0 +1,36 @@
+package com.greencoin.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the routing type header Artemis puts on the frames it delivers.
+ *
+ * A user message for a session on another node arrives through
+ * /topic/unresolved-user-destination with {@code destination-type:MULTICAST};
+ * Spring copies the header when resending it to that session's
+ * /queue/...-user{sessionId}, and Artemis then routes it as multicast to an
+ * anycast queue, dropping it. Without the header the destination prefix
+ * decides, as configured on the acceptor.
+ *
+ * Registered on the broker channel; only frames relayed from Artemis carry it.
+ */
+@Component
+public class BrokerRoutingHeaderFilter implements ChannelInterceptor {
+
+    static final String ROUTING_TYPE_HEADER = "destination-type";
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getFirstNativeHeader(ROUTING_TYPE_HEADER, message.getHeaders()) == null) {
+            return message;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        accessor.removeNativeHeader(ROUTING_TYPE_HEADER);
+        return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,140 @@
+package com.greencoin.websocket;
+
+import org.springframework.messaging.Message;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BinaryOperator;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Outbound traffic of one WebSocket session, from the moment a frame is
+ * handed to the client outbound channel until it is written to the socket.
+ */
+public class SessionOutboundStats {
+
+    private final String sessionId;
+    private final long connectedAt = System.currentTimeMillis();
+    private final AtomicLong queuedMessages = new AtomicLong();
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final AtomicLong sentMessages = new AtomicLong();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final AtomicLong maxSendNanos = new AtomicLong();
+    private volatile long sendStartedNanos;
+
+    // Held-back frame per destination while the session is slow
+    private final ReentrantLock heldLock = new ReentrantLock();
+    private final Map<String, Message<?>> held = new LinkedHashMap<>();
+
+    SessionOutboundStats(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    void queued() {
+        queuedMessages.incrementAndGet();
+    }
+
+    void sendStarted() {
+        sendStartedNanos = System.nanoTime();
+    }
+
+    void sent(long bytes) {
+        long elapsed = System.nanoTime() - sendStartedNanos;
+        sendStartedNanos = 0;
+        maxSendNanos.accumulateAndGet(elapsed, Math::max);
+        sentBytes.addAndGet(bytes);
+        sentMessages.incrementAndGet();
+    }
+
+    /**
+     * Frames handed to the session that haven't been written to the socket yet
+     */
+    public long getBacklog() {
+        return Math.max(0, queuedMessages.get() - sentMessages.get());
+    }
+
+    /**
+     * How long the write in progress has been blocked, 0 if none
+     */
+    public long getCurrentSendMillis() {
+        long started = sendStartedNanos;
+        return started == 0 ? 0 : (System.nanoTime() - started) / 1_000_000;
+    }
+
+    public long getSentBytes() {
+        return sentBytes.get();
+    }
+
+    public long getSentMessages() {
+        return sentMessages.get();
+    }
+
+    public long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+
+    public long getMaxSendMillis() {
+        return maxSendNanos.get() / 1_000_000;
+    }
+
+    public long getConnectedAt() {
+        return connectedAt;
+    }
+
+    public int getHeldMessages() {
+        heldLock.lock();
+        try {
+            return held.size();
+        } finally {
+            heldLock.unlock();
+        }
+    }
+
+    /**
+     * Holds a frame back. A frame already held for the same destination is
+     * combined with it: {@code merge} gets the older and the newer frame.
+     *
+     * @return true if a frame was already held for the destination
+     */
+    boolean hold(String destination, Message<?> message, BinaryOperator<Message<?>> merge) {
+        heldLock.lock();
+        try {
+            boolean superseded = held.containsKey(destination);
+            held.merge(destination, message, merge);
+            if (superseded) {
+                droppedMessages.incrementAndGet();
+            }
+            return superseded;
+        } finally {
+            heldLock.unlock();
+        }
+    }
+
+    /**
+     * @return the frame held for a destination, removed, or null if none
+     */
+    Message<?> takeHeld(String destination) {
+        heldLock.lock();
+        try {
+            return held.remove(destination);
+        } finally {
+            heldLock.unlock();
+        }
+    }
+
+    Map<String, Message<?>> drainHeld() {
+        heldLock.lock();
+        try {
+            Map<String, Message<?>> drained = new LinkedHashMap<>(held);
+            held.clear();
+            return drained;
+        } finally {
+            heldLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.greencoin.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks outbound frames per WebSocket session and sheds load for slow ones.
+ *
+ * A session is slow while more than {@code websocket.session.slow-backlog}
+ * frames are waiting for it, or a write has been blocked longer than
+ * {@code websocket.session.slow-send-time}. Frames for state-snapshot
+ * destinations ({@code websocket.session.droppable-prefixes}) are then held
+ * back, one per destination, and delivered once the session catches up. A
+ * newer frame for a held destination is merged into it: tile frames carry an
+ * array of report states, and the merged frame keeps the newest state of
+ * every report in either; any other frame replaces the held one. Other
+ * frames (e.g. coin updates) are never held.
+ * Hard limits are enforced by Spring's send buffer and time limits, which
+ * close the session. Spring only checks the time limit when the next frame
+ * arrives, so the socket write itself is also bounded by it: Tomcat gives up
+ * a write blocked that long and closes the session, and the outbound channel
+ * thread is free for other sessions.
+ */
+@Slf4j
+@Component
+public class SlowSessionPolicy implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final MessageChannel clientOutboundChannel;
+    private final ObjectMapper objectMapper;
+    private final Map<String, SessionOutboundStats> sessions = new ConcurrentHashMap<>();
+    private final Counter supersededCounter;
+    private final Timer sendTimer;
+
+    @Value("${websocket.session.slow-backlog:50}")
+    private long slowBacklog;
+
+    @Value("${websocket.session.slow-send-time:1s}")
+    private Duration slowSendTime;
+
+    @Value("${websocket.session.send-time-limit:10s}")
+    private Duration sendTimeLimit;
+
+    @Value("${websocket.session.droppable-prefixes:/topic/reports/}")
+    private List<String> droppablePrefixes;
+
+    public SlowSessionPolicy(@Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.objectMapper = objectMapper;
+        this.supersededCounter = Counter.builder("websocket.session.superseded")
+                .description("Frames held for slow sessions that a newer one was merged into")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("websocket.session.send")
+                .description("Time to write one frame to a WebSocket session")
+                .register(meterRegistry);
+        Gauge.builder("websocket.sessions", sessions, Map::size)
+                .description("Open WebSocket sessions")
+                .register(meterRegistry);
+        Gauge.builder("websocket.sessions.slow", this, policy -> policy.sessions.values().stream()
+                        .filter(policy::isSlow).count())
+                .description("Sessions currently treated as slow consumers")
+                .register(meterRegistry);
+        Gauge.builder("websocket.sessions.backlog", this, policy -> policy.sessions.values().stream()
+                        .mapToLong(SessionOutboundStats::getBacklog).sum())
+                .description("Frames waiting to be written, across all sessions")
+                .register(meterRegistry);
+    }
+
+    public Collection<SessionOutboundStats> getSessions() {
+        return sessions.values();
+    }
+
+    public boolean isSlow(SessionOutboundStats stats) {
+        return stats.getBacklog() > slowBacklog || stats.getCurrentSendMillis() > slowSendTime.toMillis();
+    }
+
+    /**
+     * Client outbound channel: count or hold back each frame on its way to a session
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        SessionOutboundStats stats = accessor.getSessionId() == null ? null : sessions.get(accessor.getSessionId());
+        if (stats == null) {
+            return message;
+        }
+
+        String destination = accessor.getDestination();
+        if (accessor.getMessageType() == SimpMessageType.MESSAGE && destination != null
+                && isDroppable(destination)) {
+            if (isSlow(stats)) {
+                if (stats.hold(destination, message, this::merge)) {
+                    supersededCounter.increment();
+                }
+                return null;
+            }
+            // Caught up: a frame still held for this destination goes out with this one, not after it
+            Message<?> held = stats.takeHeld(destination);
+            if (held != null) {
+                message = merge(held, message);
+            }
+        }
+        stats.queued();
+        return message;
+    }
+
+    /**
+     * Combines a held frame with a newer one for the same destination
+     */
+    Message<?> merge(Message<?> older, Message<?> newer) {
+        if (!(older.getPayload() instanceof byte[] olderPayload)
+                || !(newer.getPayload() instanceof byte[] newerPayload)) {
+            return newer;
+        }
+        try {
+            JsonNode olderEvents = objectMapper.readTree(olderPayload);
+            JsonNode newerEvents = objectMapper.readTree(newerPayload);
+            if (!olderEvents.isArray() || !newerEvents.isArray()) {
+                // A single report's state: the newer one is complete
+                return newer;
+            }
+            // Tile frames (CoalescingBroadcaster): the newest state per report id
+            Map<JsonNode, JsonNode> byReport = new LinkedHashMap<>();
+            for (JsonNode events : List.of(olderEvents, newerEvents)) {
+                for (JsonNode event : events) {
+                    byReport.put(event.hasNonNull("id") ? event.get("id") : event, event);
+                }
+            }
+            byte[] merged = objectMapper.writeValueAsBytes(
+                    objectMapper.createArrayNode().addAll(byReport.values()));
+            return MessageBuilder.createMessage(merged, newer.getHeaders());
+        } catch (IOException e) {
+            log.warn("Could not merge held frames for {}: {}",
+                    SimpMessageHeaderAccessor.getDestination(newer.getHeaders()), e.getMessage());
+            return newer;
+        }
+    }
+
+    /**
+     * Delivers held-back frames to sessions that have caught up
+     */
+    @Scheduled(fixedDelayString = "${websocket.session.release-interval-ms:500}")
+    public void releaseHeld() {
+        for (SessionOutboundStats stats : sessions.values()) {
+            if (stats.getHeldMessages() > 0 && !isSlow(stats)) {
+                stats.drainHeld().values().forEach(clientOutboundChannel::send);
+            }
+        }
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                limitBlockingSend(session);
+                SessionOutboundStats stats = new SessionOutboundStats(session.getId());
+                sessions.put(session.getId(), stats);
+                super.afterConnectionEstablished(new TrackingSession(session, stats));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                SessionOutboundStats stats = sessions.remove(session.getId());
+                if (stats != null && stats.getDroppedMessages() > 0) {
+                    log.info("WebSocket session {} closed ({}); {} superseded frames were dropped",
+                            session.getId(), closeStatus.getCode(), stats.getDroppedMessages());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Tomcat blocks a write for up to 20s by default, then closes the session
+     */
+    private void limitBlockingSend(WebSocketSession session) {
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            Session endpoint = nativeSession.getNativeSession(Session.class);
+            if (endpoint != null) {
+                endpoint.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeLimit.toMillis());
+            }
+        }
+    }
+
+    private boolean isDroppable(String destination) {
+        return droppablePrefixes.stream().anyMatch(destination::startsWith);
+    }
+
+    /**
+     * Times each socket write; sits below Spring's own buffering decorator
+     */
+    private class TrackingSession extends WebSocketSessionDecorator {
+
+        private final SessionOutboundStats stats;
+
+        TrackingSession(WebSocketSession delegate, SessionOutboundStats stats) {
+            super(delegate);
+            this.stats = stats;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            stats.sendStarted();
+            long started = System.nanoTime();
+            try {
+                super.sendMessage(message);
+            } finally {
+                stats.sent(message.getPayloadLength());
+                sendTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
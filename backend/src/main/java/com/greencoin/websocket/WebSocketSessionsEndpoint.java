@@ -0,0 +1,39 @@
+package com.greencoin.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Actuator endpoint /actuator/websocketsessions: outbound stats per open
+ * session, slowest first. Per-session numbers are kept out of Micrometer to
+ * avoid one time series per connection.
+ *
+ * Session ids are left out: they name each user's /user/queue destinations.
+ */
+@Component
+@Endpoint(id = "websocketsessions")
+@RequiredArgsConstructor
+public class WebSocketSessionsEndpoint {
+
+    private final SlowSessionPolicy slowSessionPolicy;
+
+    @ReadOperation
+    public List<SessionView> sessions() {
+        return slowSessionPolicy.getSessions().stream()
+                .map(stats -> new SessionView(slowSessionPolicy.isSlow(stats),
+                        stats.getBacklog(), stats.getHeldMessages(), stats.getSentMessages(),
+                        stats.getSentBytes(), stats.getDroppedMessages(), stats.getMaxSendMillis(),
+                        stats.getCurrentSendMillis(), stats.getConnectedAt()))
+                .sorted(Comparator.comparingLong(SessionView::backlog).reversed())
+                .toList();
+    }
+
+    public record SessionView(boolean slow, long backlog, int held, long sentMessages,
+            long sentBytes, long droppedMessages, long maxSendMillis, long currentSendMillis, long connectedAt) {
+    }
+}
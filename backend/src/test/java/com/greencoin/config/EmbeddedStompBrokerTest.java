@@ -0,0 +1,207 @@
+package com.greencoin.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.greencoin.BackendApplication;
+import com.greencoin.model.User;
+import com.greencoin.repository.UserRepository;
+import com.greencoin.service.CoinService;
+import com.greencoin.service.OutboxService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts sharing one broker: node 1 runs the embedded
+ * Artemis broker ({@code stomp.broker.mode=embedded}), node 2 relays to it.
+ * An event published on one node must reach subscribers on the other, for
+ * topics as well as user destinations.
+ */
+@EnabledIfEnvironmentVariable(named = "PGHOST", matches = ".+")
+class EmbeddedStompBrokerTest {
+
+    private static final String TOKEN_SECRET = "embedded-broker-test-secret-embedded-broker-test-secret";
+    private static final long TIMEOUT_SECONDS = 15;
+
+    private static ConfigurableApplicationContext node1;
+    private static ConfigurableApplicationContext node2;
+    private static WebSocketStompClient stompClient;
+    private static ThreadPoolTaskScheduler taskScheduler;
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        int brokerPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            brokerPort = socket.getLocalPort();
+        }
+        node1 = start("--stomp.broker.mode=embedded", "--stomp.broker.embedded.port=" + brokerPort);
+        node2 = start("--stomp.broker.mode=relay", "--stomp.broker.relay.host=localhost",
+                "--stomp.broker.relay.port=" + brokerPort);
+
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+        // Runs the receipt time limit
+        stompClient.setTaskScheduler(taskScheduler);
+        stompClient.setReceiptTimeLimit(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (stompClient != null) {
+            stompClient.stop();
+        }
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+        if (node2 != null) {
+            node2.close();
+        }
+        if (node1 != null) {
+            node1.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String... args) {
+        String[] common = {
+                "--server.port=0",
+                "--security.local-tokens.secret=" + TOKEN_SECRET
+        };
+        String[] all = new String[common.length + args.length];
+        System.arraycopy(common, 0, all, 0, common.length);
+        System.arraycopy(args, 0, all, common.length, args.length);
+        return new SpringApplicationBuilder(BackendApplication.class).profiles("test").run(all);
+    }
+
+    @Test
+    void topicEventsReachSubscribersOnBothNodes() throws Exception {
+        String destination = "/topic/reports/" + UUID.randomUUID() + "/status";
+        BlockingQueue<JsonNode> onNode1 = new LinkedBlockingQueue<>();
+        BlockingQueue<JsonNode> onNode2 = new LinkedBlockingQueue<>();
+        StompSession session1 = connect(node1, null);
+        StompSession session2 = connect(node2, null);
+        try {
+            // The SUBSCRIBE frames travel through the relay; the receipts mean the broker has them
+            subscribe(session1, destination, onNode1);
+            subscribe(session2, destination, onNode2);
+
+            node1.getBean(OutboxService.class).record("test:" + destination, destination,
+                    Map.of("id", 1, "status", "COLLECTED"));
+
+            JsonNode local = onNode1.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            JsonNode remote = onNode2.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertThat(local).isNotNull();
+            assertThat(remote).isNotNull();
+            assertThat(remote.path("status").asText()).isEqualTo("COLLECTED");
+        } finally {
+            session1.disconnect();
+            session2.disconnect();
+        }
+    }
+
+    @Test
+    void coinUpdatesReachUserConnectedToOtherNode() throws Exception {
+        String uid = "embedded-broker-" + UUID.randomUUID();
+        UserRepository users = node1.getBean(UserRepository.class);
+        JdbcTemplate jdbcTemplate = node1.getBean(JdbcTemplate.class);
+        User user = users.save(User.builder().firebaseUid(uid).email(uid + "@test.local").build());
+
+        BlockingQueue<JsonNode> updates = new LinkedBlockingQueue<>();
+        StompSession session = connect(node2, token(uid, uid + "@test.local"));
+        try {
+            subscribe(session, "/user/queue/coins", updates);
+
+            node1.getBean(CoinService.class).awardCoins(user, 7, 0L);
+
+            JsonNode update = updates.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertThat(update).isNotNull();
+            assertThat(update.path("type").asText()).isEqualTo("COINS_AWARDED");
+            assertThat(update.path("newBalance").asInt()).isEqualTo(7);
+        } finally {
+            session.disconnect();
+            jdbcTemplate.update("DELETE FROM coin_transactions WHERE user_id = ?", user.getId());
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        }
+    }
+
+    private StompSession connect(ConfigurableApplicationContext node, String token) throws Exception {
+        int port = node.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        StompHeaders connectHeaders = new StompHeaders();
+        if (token != null) {
+            connectHeaders.add("Authorization", "Bearer " + token);
+        }
+        return stompClient.connectAsync(URI.create("ws://localhost:" + port + "/ws/websocket"),
+                        new WebSocketHttpHeaders(), connectHeaders, new StompSessionHandlerAdapter() {
+                        })
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Subscribes with a receipt and returns once the broker has confirmed it.
+     */
+    private void subscribe(StompSession session, String destination, BlockingQueue<JsonNode> received)
+            throws Exception {
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination(destination);
+        headers.setReceipt(UUID.randomUUID().toString());
+        CompletableFuture<Void> receipt = new CompletableFuture<>();
+        StompSession.Subscription subscription = session.subscribe(headers, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return JsonNode.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((JsonNode) payload);
+            }
+        });
+        subscription.addReceiptTask(() -> receipt.complete(null));
+        subscription.addReceiptLostTask(() -> receipt.completeExceptionally(
+                new AssertionError("No receipt for SUBSCRIBE to " + destination)));
+        receipt.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /** An ID token for {@code security.token-verifier=local} */
+    private static String token(String uid, String email) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String claims = encoder.encodeToString(("{\"sub\":\"" + uid + "\",\"email\":\"" + email + "\",\"exp\":"
+                + Instant.now().plusSeconds(3600).getEpochSecond() + "}").getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(TOKEN_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String signature = encoder.encodeToString(
+                mac.doFinal((header + "." + claims).getBytes(StandardCharsets.US_ASCII)));
+        return header + "." + claims + "." + signature;
+    }
+}
@@ -0,0 +1,53 @@
+package com.greencoin.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /actuator/prometheus is on the public port, so only the scrape token may read it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "metrics.scrape-token=" + MetricsScrapeSecurityTest.SCRAPE_TOKEN)
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "PGHOST", matches = ".+")
+class MetricsScrapeSecurityTest {
+
+    static final String SCRAPE_TOKEN = "test-scrape-token";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Test
+    void prometheusRequiresScrapeToken() throws Exception {
+        assertThat(scrape(null).statusCode()).isEqualTo(403);
+        assertThat(scrape("wrong-token").statusCode()).isEqualTo(403);
+
+        HttpResponse<String> scraped = scrape(SCRAPE_TOKEN);
+        assertThat(scraped.statusCode()).isEqualTo(200);
+        assertThat(scraped.body()).contains("jvm_memory_used_bytes");
+    }
+
+    private HttpResponse<String> scrape(String token) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/actuator/prometheus"));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
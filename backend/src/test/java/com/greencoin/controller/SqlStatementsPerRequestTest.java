@@ -0,0 +1,194 @@
+package com.greencoin.controller;
+
+import com.greencoin.model.User;
+import com.greencoin.model.WasteReport;
+import com.greencoin.repository.UserRepository;
+import com.greencoin.repository.WasteReportRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The statements a request issues, as recorded in {@code sql.statements},
+ * must not grow with the rows it returns or writes. A count that does is an
+ * N+1: a lazy association read once per row.
+ *
+ * MockMvc runs each request on the test thread, so its statements are
+ * recorded by the time it returns.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "PGHOST", matches = ".+")
+class SqlStatementsPerRequestTest {
+
+    private static final int ROWS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WasteReportRepository reportRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${security.local-tokens.secret}")
+    private String tokenSecret;
+
+    private User reporter;
+    private User collector;
+    private final List<WasteReport> reports = new ArrayList<>();
+
+    @BeforeEach
+    void createReports() {
+        reporter = saveUser("n-plus-one-citizen-", User.UserRole.CITIZEN);
+        collector = saveUser("n-plus-one-collector-", User.UserRole.COLLECTOR);
+        for (int i = 0; i < ROWS; i++) {
+            reports.add(reportRepository.save(WasteReport.builder()
+                    .reporter(reporter)
+                    .latitude(BigDecimal.valueOf(-44.0))
+                    .longitude(BigDecimal.valueOf(-171.0))
+                    .imageUrl("https://example.com/bin-" + i + ".jpg")
+                    .description("Overflowing bin " + i)
+                    .coinsAwarded(10)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void deleteReports() {
+        reportRepository.deleteAll(reports);
+        for (User user : List.of(reporter, collector)) {
+            jdbcTemplate.update("DELETE FROM coin_transactions WHERE user_id = ?", user.getId());
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        }
+    }
+
+    @Test
+    void statementsDoNotGrowWithRows() throws Exception {
+        String reporterToken = token(reporter);
+        String collectorToken = token(collector);
+
+        assertPageSizeIndependent("GET /api/reports/my-reports", "/api/reports/my-reports", reporterToken);
+        assertPageSizeIndependent("GET /api/reports/available", "/api/reports/available", collectorToken);
+
+        List<Integer> picks = new ArrayList<>();
+        for (WasteReport report : reports) {
+            picks.add(statements("PATCH /api/reports/{reportId}/pick",
+                    patch("/api/reports/{id}/pick", report.getId()).header("Authorization", bearer(collectorToken))));
+        }
+        assertSameCount(picks);
+        assertPageSizeIndependent("GET /api/reports/my-pickups", "/api/reports/my-pickups", collectorToken);
+
+        // Each collect awards coins, so the reporter has one transaction per report
+        List<Integer> collects = new ArrayList<>();
+        for (WasteReport report : reports) {
+            collects.add(statements("PATCH /api/reports/{reportId}/collect",
+                    patch("/api/reports/{id}/collect", report.getId()).header("Authorization", bearer(collectorToken))));
+        }
+        assertSameCount(collects);
+        assertPageSizeIndependent("GET /api/coins/transactions", "/api/coins/transactions", reporterToken);
+
+        List<Integer> details = new ArrayList<>();
+        for (WasteReport report : reports) {
+            details.add(statements("GET /api/reports/{reportId}",
+                    get("/api/reports/{id}", report.getId()).header("Authorization", bearer(reporterToken))));
+        }
+        assertSameCount(details);
+    }
+
+    /**
+     * Requests one row, then {@link #ROWS} rows, and expects the same count.
+     * A first request is left out: it may look up the caller's account.
+     */
+    private void assertPageSizeIndependent(String endpoint, String path, String token) throws Exception {
+        RequestBuilder all = get(path).param("limit", String.valueOf(ROWS)).header("Authorization", bearer(token));
+        mockMvc.perform(all).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(ROWS));
+
+        int one = statements(endpoint, get(path).param("limit", "1").header("Authorization", bearer(token)));
+        int many = statements(endpoint, all);
+
+        assertThat(one).as(endpoint).isPositive();
+        assertThat(many).as("%s with %d rows vs 1", endpoint, ROWS).isEqualTo(one);
+    }
+
+    /**
+     * The first request is left out, as it may look up the caller's account.
+     */
+    private static void assertSameCount(List<Integer> counts) {
+        assertThat(counts.get(counts.size() - 1)).isPositive();
+        assertThat(counts.subList(1, counts.size())).containsOnly(counts.get(counts.size() - 1));
+    }
+
+    /**
+     * @return statements the request issued, from the change in {@code sql.statements}
+     */
+    private int statements(String endpoint, RequestBuilder request) throws Exception {
+        double before = recorded(endpoint);
+        mockMvc.perform(request).andExpect(status().isOk());
+        return (int) (recorded(endpoint) - before);
+    }
+
+    private double recorded(String endpoint) {
+        return meterRegistry.find("sql.statements").tag("endpoint", endpoint).summaries().stream()
+                .mapToDouble(DistributionSummary::totalAmount)
+                .sum();
+    }
+
+    private User saveUser(String prefix, User.UserRole role) {
+        String uid = prefix + UUID.randomUUID();
+        return userRepository.save(User.builder().firebaseUid(uid).email(uid + "@test.local").role(role).build());
+    }
+
+    private static String bearer(String token) {
+        return "Bearer " + token;
+    }
+
+    /** An ID token for {@code security.token-verifier=local} */
+    private String token(User user) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String claims = encoder.encodeToString(("{\"sub\":\"" + user.getFirebaseUid() + "\",\"email\":\""
+                + user.getEmail() + "\",\"exp\":" + Instant.now().plusSeconds(3600).getEpochSecond() + "}")
+                .getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(tokenSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String signature = encoder.encodeToString(
+                mac.doFinal((header + "." + claims).getBytes(StandardCharsets.US_ASCII)));
+        return header + "." + claims + "." + signature;
+    }
+}
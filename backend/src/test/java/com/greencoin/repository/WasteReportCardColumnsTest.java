@@ -0,0 +1,116 @@
+package com.greencoin.repository;
+
+import com.greencoin.dto.WasteReportCard;
+import com.greencoin.metrics.SqlStatementCounter;
+import com.greencoin.model.User;
+import com.greencoin.model.WasteReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The list queries must not fetch description or whole image_url values:
+ * legacy rows keep megabytes of Base64 there. Only the reference-length
+ * prefix of image_url may be read.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SqlStatementCounter.class)
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "PGHOST", matches = ".+")
+class WasteReportCardColumnsTest {
+
+    private static final String REFERENCE =
+            "sha256:0000000000000000000000000000000000000000000000000000000000000000";
+    /** image_url read through SUBSTRING(..., 1, 7) or SUBSTRING(..., 1, 71) */
+    private static final Pattern IMAGE_URL_PREFIX =
+            Pattern.compile("substr(ing)?\\(\\w+\\.image_url,1,(7|71)\\)", Pattern.CASE_INSENSITIVE);
+    private static final LocalDateTime AFTER_ALL = LocalDateTime.now().plusDays(1);
+
+    @Autowired
+    private WasteReportRepository reportRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SqlStatementCounter sqlStatements;
+
+    private User reporter;
+    private WasteReport legacy;
+    private WasteReport stored;
+
+    @BeforeEach
+    void createReports() {
+        String uid = "card-columns-" + UUID.randomUUID();
+        reporter = userRepository.save(User.builder().firebaseUid(uid).email(uid + "@test.local").build());
+        legacy = reportRepository.save(report("data:image/jpeg;base64," + "A".repeat(100_000)));
+        stored = reportRepository.save(report(REFERENCE));
+        reportRepository.flush();
+    }
+
+    @Test
+    void listQueriesReadOnlyImageReferencePrefix() {
+        List<WasteReportCard> byStatus = query(() -> reportRepository.findCardsByStatus(
+                WasteReport.ReportStatus.OPEN, AFTER_ALL, Long.MAX_VALUE, PageRequest.ofSize(1000)));
+        List<WasteReportCard> byReporter = query(() -> reportRepository.findCardsByReporterId(
+                reporter.getId(), AFTER_ALL, Long.MAX_VALUE, PageRequest.ofSize(10)));
+        query(() -> reportRepository.findCardsByCollectorId(
+                reporter.getId(), AFTER_ALL, Long.MAX_VALUE, PageRequest.ofSize(10)));
+        List<WasteReportCard> byId = query(() -> reportRepository.findCardsByIdInAndStatus(
+                List.of(legacy.getId(), stored.getId()), WasteReport.ReportStatus.OPEN));
+        List<WasteReportCard> nearby = query(() -> reportRepository.findNearbyCards(-45.0, -170.0, 1.0));
+        query(() -> reportRepository.findCardsChangedSince(0, PageRequest.ofSize(10)));
+
+        assertThat(byStatus).extracting(WasteReportCard::id).contains(legacy.getId(), stored.getId());
+        assertThat(byReporter).hasSize(2);
+        assertThat(nearby).extracting(WasteReportCard::id).contains(legacy.getId(), stored.getId());
+        // Legacy Base64 is left out of cards, references come through whole
+        assertThat(byId).filteredOn(card -> card.id().equals(legacy.getId()))
+                .singleElement().extracting(WasteReportCard::imageUrl).isNull();
+        assertThat(byId).filteredOn(card -> card.id().equals(stored.getId()))
+                .singleElement().extracting(WasteReportCard::imageUrl).isEqualTo(REFERENCE);
+    }
+
+    private List<WasteReportCard> query(Supplier<List<WasteReportCard>> listQuery) {
+        sqlStatements.startRecording();
+        List<WasteReportCard> cards;
+        List<String> statements;
+        try {
+            cards = listQuery.get();
+        } finally {
+            statements = sqlStatements.stopRecording();
+        }
+        assertThat(statements).hasSize(1);
+        String sql = statements.get(0).replaceAll("\\s+", "");
+        assertThat(sql).doesNotContainIgnoringCase("description");
+        assertThat(IMAGE_URL_PREFIX.matcher(sql).replaceAll("")).doesNotContainIgnoringCase("image_url");
+        return cards;
+    }
+
+    private WasteReport report(String imageUrl) {
+        // Far from the seeded reports, so the nearby query only finds these two
+        return WasteReport.builder()
+                .reporter(reporter)
+                .latitude(BigDecimal.valueOf(-45.0))
+                .longitude(BigDecimal.valueOf(-170.0))
+                .imageUrl(imageUrl)
+                .description("Overflowing bin")
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.greencoin.service;
+
+import com.greencoin.model.User;
+import com.greencoin.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Awards and redemptions against one user from many threads at once: the
+ * balance must always equal the sum of the ledger and never go negative.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "PGHOST", matches = ".+")
+class CoinServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 50;
+    private static final int AWARD = 10;
+    private static final int REDEEM = 25;
+
+    @Autowired
+    private CoinService coinService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        String uid = "coin-concurrency-" + UUID.randomUUID();
+        user = userRepository.save(User.builder()
+                .firebaseUid(uid)
+                .email(uid + "@test.local")
+                .build());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM coin_transactions WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void balanceMatchesLedgerUnderConcurrentAwardsAndRedemptions() throws Exception {
+        AtomicInteger awarded = new AtomicInteger();
+        AtomicInteger redeemed = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                boolean redeemer = t % 2 == 1;
+                // Each thread has its own copy: the service writes the new balance into it
+                User copy = user.toBuilder().build();
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        if (redeemer) {
+                            try {
+                                coinService.redeemCoins(copy, REDEEM, "test-item");
+                                redeemed.incrementAndGet();
+                            } catch (RuntimeException e) {
+                                // Insufficient balance at that moment
+                                refused.incrementAndGet();
+                            }
+                        } else {
+                            coinService.awardCoins(copy, AWARD, 0L);
+                            awarded.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Integer balance = jdbcTemplate.queryForObject(
+                "SELECT coin_balance FROM users WHERE id = ?", Integer.class, user.getId());
+        Integer ledgerSum = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(amount), 0) FROM coin_transactions WHERE user_id = ?",
+                Integer.class, user.getId());
+        Integer ledgerRows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM coin_transactions WHERE user_id = ?", Integer.class, user.getId());
+
+        assertThat(awarded.get()).isEqualTo(THREADS / 2 * OPERATIONS_PER_THREAD);
+        assertThat(redeemed.get() + refused.get()).isEqualTo(THREADS / 2 * OPERATIONS_PER_THREAD);
+        assertThat(balance).isEqualTo(ledgerSum);
+        assertThat(balance).isEqualTo(awarded.get() * AWARD - redeemed.get() * REDEEM);
+        assertThat(balance).isNotNegative();
+        assertThat(ledgerRows).isEqualTo(awarded.get() + redeemed.get());
+    }
+}
@@ -0,0 +1,156 @@
+package com.greencoin.service;
+
+import com.greencoin.model.User;
+import com.greencoin.model.WasteReport;
+import com.greencoin.repository.UserRepository;
+import com.greencoin.repository.WasteReportRepository;
+import com.greencoin.storage.BlobStore;
+import com.greencoin.storage.ImageReferences;
+import com.greencoin.storage.StoredBlob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A discarded upload's blob is only deleted once no report uses it and no
+ * duplicate upload has stored it again within the grace period.
+ */
+@SpringBootTest(properties = "storage.orphans.sweep-interval-ms=3600000")
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "PGHOST", matches = ".+")
+class OrphanedImageCollectorTest {
+
+    private static final Duration PAST_GRACE = Duration.ofHours(2);
+
+    @Autowired
+    private ReportImageService imageService;
+
+    @Autowired
+    private OrphanedImageCollector collector;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WasteReportRepository reportRepository;
+
+    private final List<String> digests = new ArrayList<>();
+    private final List<WasteReport> reports = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        reportRepository.deleteAll(reports);
+        digests.forEach(digest -> jdbcTemplate.update("DELETE FROM orphaned_images WHERE digest = ?", digest));
+    }
+
+    @Test
+    void unusedOrphanIsDeletedAfterGrace() throws IOException {
+        StoredBlob blob = store();
+        imageService.discard(blob);
+        ageBlob(blob.digest());
+
+        // Still within the grace period
+        collector.collect();
+        assertThat(blobStore.exists(blob.digest())).isTrue();
+
+        ageDiscard(blob.digest());
+        collector.collect();
+        assertThat(blobStore.exists(blob.digest())).isFalse();
+        assertThat(isMarked(blob.digest())).isFalse();
+    }
+
+    @Test
+    void orphanSavedByDuplicateUploadIsKept() throws IOException {
+        byte[] content = randomContent();
+        StoredBlob failed = blobStore.put(content);
+        StoredBlob duplicate = blobStore.put(content);
+        digests.add(failed.digest());
+        assertThat(duplicate.duplicate()).isTrue();
+
+        saveReport(duplicate.digest());
+        imageService.discard(failed);
+        ageBlob(failed.digest());
+        ageDiscard(failed.digest());
+
+        collector.collect();
+        assertThat(blobStore.exists(failed.digest())).isTrue();
+        assertThat(isMarked(failed.digest())).isFalse();
+    }
+
+    @Test
+    void orphanStoredAgainDuringGraceIsKept() throws IOException {
+        byte[] content = randomContent();
+        StoredBlob failed = blobStore.put(content);
+        digests.add(failed.digest());
+        imageService.discard(failed);
+        ageBlob(failed.digest());
+        ageDiscard(failed.digest());
+
+        // A duplicate upload whose report isn't committed yet
+        assertThat(blobStore.put(content).duplicate()).isTrue();
+
+        collector.collect();
+        assertThat(blobStore.exists(failed.digest())).isTrue();
+        // Checked again on a later sweep
+        assertThat(isMarked(failed.digest())).isTrue();
+    }
+
+    private StoredBlob store() throws IOException {
+        StoredBlob blob = blobStore.put(randomContent());
+        digests.add(blob.digest());
+        return blob;
+    }
+
+    private static byte[] randomContent() {
+        return UUID.randomUUID().toString().getBytes();
+    }
+
+    private void ageBlob(String digest) throws IOException {
+        Files.setLastModifiedTime(blobStore.get(digest).orElseThrow().getFile().toPath(),
+                FileTime.from(Instant.now().minus(PAST_GRACE)));
+    }
+
+    private void ageDiscard(String digest) {
+        jdbcTemplate.update("UPDATE orphaned_images SET discarded_at = ? WHERE digest = ?",
+                LocalDateTime.now().minus(PAST_GRACE), digest);
+    }
+
+    private boolean isMarked(String digest) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orphaned_images WHERE digest = ?",
+                Integer.class, digest) > 0;
+    }
+
+    private void saveReport(String digest) {
+        String uid = "orphans-" + UUID.randomUUID();
+        User reporter = userRepository.save(User.builder().firebaseUid(uid).email(uid + "@test.local").build());
+        reports.add(reportRepository.save(WasteReport.builder()
+                .reporter(reporter)
+                .latitude(BigDecimal.valueOf(-45.0))
+                .longitude(BigDecimal.valueOf(-170.0))
+                .imageUrl(ImageReferences.of(digest))
+                .build()));
+    }
+}
@@ -0,0 +1,87 @@
+package com.greencoin.service;
+
+import com.greencoin.model.OutboxEvent;
+import com.greencoin.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * An event the dispatcher can never publish is dead-lettered after
+ * {@code outbox.dead-letter-after} attempts, and the events held back behind
+ * it for the same partition key go out.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "outbox.max-attempts=2",
+        "outbox.dead-letter-after=4",
+        "outbox.retry-backoff=1ms",
+        // Sweeps are run by the test
+        "outbox.sweep-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "PGHOST", matches = ".+")
+class OutboxDispatcherTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void deleteEvents() {
+        outboxRepository.deleteAllById(created);
+    }
+
+    @Test
+    void poisonEventIsDeadLetteredAndReleasesItsPartition() {
+        String partitionKey = "test:" + UUID.randomUUID();
+        // Not JSON: publishing it fails every time
+        OutboxEvent poison = save(partitionKey, "{not json");
+        OutboxEvent behind = save(partitionKey, "{\"id\":1,\"status\":\"COLLECTED\"}");
+
+        await().atMost(TIMEOUT).pollInterval(Duration.ofMillis(200)).until(() -> {
+            dispatcher.sweep();
+            return outboxRepository.findById(behind.getId()).orElseThrow().getPublishedAt() != null;
+        });
+
+        OutboxEvent deadLetter = outboxRepository.findById(poison.getId()).orElseThrow();
+        assertThat(deadLetter.getFailedAt()).isNotNull();
+        assertThat(deadLetter.getPublishedAt()).isNull();
+        assertThat(deadLetter.getAttempts()).isEqualTo(4);
+
+        // Never claimed again
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(outboxRepository.claimUnpublishedBefore(now, now.plusMinutes(10), now.plusMinutes(20), 10_000))
+                .extracting(OutboxEvent::getId)
+                .doesNotContain(poison.getId());
+    }
+
+    private OutboxEvent save(String partitionKey, String payload) {
+        OutboxEvent event = outboxRepository.save(OutboxEvent.builder()
+                .partitionKey(partitionKey)
+                .destination("/topic/reports/" + partitionKey + "/status")
+                .payload(payload)
+                // Old enough for the sweep
+                .createdAt(LocalDateTime.now().minusHours(1))
+                .build());
+        created.add(event.getId());
+        return event;
+    }
+}
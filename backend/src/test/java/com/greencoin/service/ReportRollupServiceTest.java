@@ -0,0 +1,110 @@
+package com.greencoin.service;
+
+import com.greencoin.dto.ReportHeatmap;
+import com.greencoin.model.User;
+import com.greencoin.model.WasteReport;
+import com.greencoin.repository.UserRepository;
+import com.greencoin.repository.WasteReportRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rebuilds correct the rollups by their difference to the reports, and the
+ * heatmap counts whole buckets on both ends of the window.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "PGHOST", matches = ".+")
+class ReportRollupServiceTest {
+
+    // A tile and hour no other test writes to
+    private static final double LATITUDE = -61.5;
+    private static final double LONGITUDE = -151.5;
+    private static final LocalDateTime REPORTED_AT = LocalDateTime.of(2001, 2, 3, 10, 30);
+
+    @Autowired
+    private ReportRollupService rollupService;
+
+    @Autowired
+    private WasteReportRepository reportRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private WasteReport report;
+
+    @BeforeEach
+    void saveReportWithoutRollups() {
+        String uid = "rollups-" + UUID.randomUUID();
+        User reporter = userRepository.save(User.builder().firebaseUid(uid).email(uid + "@test.local").build());
+        // Saved through the repository, so no lifecycle event updates the rollups
+        report = reportRepository.save(WasteReport.builder()
+                .reporter(reporter)
+                .latitude(BigDecimal.valueOf(LATITUDE))
+                .longitude(BigDecimal.valueOf(LONGITUDE))
+                .imageUrl("https://example.com/bin.jpg")
+                .reportedAt(REPORTED_AT)
+                .build());
+        // And a stale count in the same hour
+        jdbcTemplate.update("INSERT INTO report_rollups " +
+                        "(granularity, bucket, tile_row, tile_col, status, report_count) VALUES (?, ?, ?, ?, ?, ?) " +
+                        "ON CONFLICT DO NOTHING",
+                "HOUR", Timestamp.valueOf(REPORTED_AT.withMinute(0)), 0, 0, "COLLECTED", 5);
+    }
+
+    @AfterEach
+    void deleteReport() {
+        reportRepository.delete(report);
+        rollupService.rebuild();
+    }
+
+    @Test
+    void rebuildCorrectsRollupsToMatchReports() {
+        assertThat(rollupService.rebuild()).isPositive();
+
+        assertThat(heatmapTotals(REPORTED_AT.withMinute(0), REPORTED_AT.withMinute(45)).totals())
+                .containsEntry("OPEN", 1L);
+        assertThat(jdbcTemplate.queryForObject("SELECT report_count FROM report_rollups " +
+                        "WHERE granularity = 'HOUR' AND bucket = ? AND tile_row = 0 AND tile_col = 0 " +
+                        "AND status = 'COLLECTED'", Long.class, Timestamp.valueOf(REPORTED_AT.withMinute(0))))
+                .isZero();
+        // Nothing left to correct
+        assertThat(rollupService.rebuild()).isZero();
+    }
+
+    @Test
+    void heatmapRoundsWindowOutToWholeBuckets() {
+        rollupService.rebuild();
+
+        // Ends before the report's minute, but inside its hour
+        ReportHeatmap heatmap = heatmapTotals(REPORTED_AT.withMinute(5), REPORTED_AT.withMinute(15));
+        assertThat(heatmap.from()).isEqualTo(REPORTED_AT.withMinute(0));
+        assertThat(heatmap.to()).isEqualTo(REPORTED_AT.withMinute(0).plusHours(1));
+        assertThat(heatmap.totals()).containsEntry("OPEN", 1L);
+
+        // A window already on bucket boundaries is kept
+        assertThat(heatmapTotals(REPORTED_AT.withMinute(0).minusHours(1), REPORTED_AT.withMinute(0)).totals())
+                .doesNotContainKey("OPEN");
+    }
+
+    private ReportHeatmap heatmapTotals(LocalDateTime from, LocalDateTime to) {
+        return rollupService.heatmap(LATITUDE - 0.5, LONGITUDE - 0.5, LATITUDE + 0.5, LONGITUDE + 0.5,
+                from, to, 1.0, null);
+    }
+}
@@ -0,0 +1,135 @@
+package com.greencoin.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Frames held back for a slow session: tile batches are merged per report,
+ * and nothing held is delivered after a newer frame once the session has
+ * caught up.
+ */
+class SlowSessionPolicyTest {
+
+    private static final String SESSION_ID = "session-1";
+    private static final String TILE = "/topic/reports/tile/10-20";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MessageChannel clientOutboundChannel = mock(MessageChannel.class);
+    private SlowSessionPolicy policy;
+    private WebSocketSession trackedSession;
+
+    @BeforeEach
+    void connect() throws Exception {
+        policy = new SlowSessionPolicy(clientOutboundChannel, objectMapper, new SimpleMeterRegistry());
+        // One unsent frame makes the session slow
+        ReflectionTestUtils.setField(policy, "slowBacklog", 0L);
+        ReflectionTestUtils.setField(policy, "slowSendTime", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(policy, "droppablePrefixes", List.of("/topic/reports/"));
+
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(SESSION_ID);
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+        policy.decorate(handler).afterConnectionEstablished(session);
+        ArgumentCaptor<WebSocketSession> tracked = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(tracked.capture());
+        trackedSession = tracked.getValue();
+    }
+
+    @Test
+    void heldTileFramesKeepEveryReport() throws Exception {
+        makeSlow();
+
+        assertThat(policy.preSend(frame(TILE, "[{\"id\":1,\"status\":\"OPEN\"},{\"id\":2,\"status\":\"OPEN\"}]"),
+                clientOutboundChannel)).isNull();
+        assertThat(policy.preSend(frame(TILE, "[{\"id\":1,\"status\":\"PICKED\"}]"),
+                clientOutboundChannel)).isNull();
+
+        catchUp();
+        policy.releaseHeld();
+
+        @SuppressWarnings("rawtypes")
+        ArgumentCaptor<Message> released = ArgumentCaptor.forClass(Message.class);
+        verify(clientOutboundChannel).send(released.capture());
+        assertThat(statuses(released.getValue())).containsExactly("1:PICKED", "2:OPEN");
+    }
+
+    @Test
+    void heldFrameGoesOutWithTheNextOneOnceCaughtUp() throws Exception {
+        makeSlow();
+        policy.preSend(frame(TILE, "[{\"id\":1,\"status\":\"OPEN\"},{\"id\":2,\"status\":\"OPEN\"}]"),
+                clientOutboundChannel);
+
+        catchUp();
+        Message<?> sent = policy.preSend(frame(TILE, "[{\"id\":2,\"status\":\"COLLECTED\"}]"), clientOutboundChannel);
+        policy.releaseHeld();
+
+        assertThat(statuses(sent)).containsExactly("1:OPEN", "2:COLLECTED");
+        verify(clientOutboundChannel, never()).send(any());
+    }
+
+    @Test
+    void singleReportFramesAreReplaced() throws Exception {
+        makeSlow();
+        String status = "/topic/reports/7/status";
+        policy.preSend(frame(status, "{\"id\":7,\"status\":\"PICKED\"}"), clientOutboundChannel);
+        policy.preSend(frame(status, "{\"id\":7,\"status\":\"COLLECTED\"}"), clientOutboundChannel);
+
+        catchUp();
+        Message<?> sent = policy.preSend(frame(status, "{\"id\":7,\"status\":\"OPEN\"}"), clientOutboundChannel);
+
+        assertThat(payload(sent).path("status").asText()).isEqualTo("OPEN");
+    }
+
+    /** A coin update that hasn't been written yet */
+    private void makeSlow() {
+        assertThat(policy.preSend(frame("/user/queue/coins", "{\"amount\":5}"), clientOutboundChannel)).isNotNull();
+    }
+
+    private void catchUp() throws Exception {
+        trackedSession.sendMessage(new TextMessage("{\"amount\":5}"));
+    }
+
+    private Message<byte[]> frame(String destination, String json) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SESSION_ID);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(json.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+
+    private JsonNode payload(Message<?> message) throws Exception {
+        return objectMapper.readTree((byte[]) message.getPayload());
+    }
+
+    private List<String> statuses(Message<?> message) throws Exception {
+        List<String> statuses = new ArrayList<>();
+        for (JsonNode event : payload(message)) {
+            statuses.add(event.path("id").asText() + ":" + event.path("status").asText());
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,178 @@
+package com.greencoin.bench;
+
+import com.greencoin.dto.WasteReportCard;
+import com.greencoin.event.ReportLifecycleEvent;
+import com.greencoin.model.User;
+import com.greencoin.model.WasteReport;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic inputs for the benchmarks.
+ *
+ * Every generator takes a seed, so a run on one release sees exactly the same
+ * data as a run on the next. Reports are scattered within ~25km of the default
+ * map centre (Bengaluru), as in the frontends.
+ */
+public final class BenchmarkData {
+
+    public static final long SEED = 20240117L;
+    public static final double CENTER_LATITUDE = 12.9716;
+    public static final double CENTER_LONGITUDE = 77.5946;
+    /** Half-width of the area reports fall in, in degrees (~25km) */
+    public static final double SPREAD_DEGREES = 0.225;
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final String[] FIRST_NAMES = {"Asha", "Ravi", "Meera", "Arjun", "Divya", "Kiran", "Neha",
+            "Suresh", "Priya", "Vikram"};
+    private static final String[] LAST_NAMES = {"Rao", "Iyer", "Reddy", "Nair", "Shetty", "Gowda", "Kumar",
+            "Menon"};
+
+    private BenchmarkData() {
+    }
+
+    /** Full entities, as loaded for GET /api/reports/{id} and WebSocket notifications */
+    public static List<WasteReport> reports(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<User> users = users(Math.max(10, count / 5), random);
+        List<WasteReport> reports = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            WasteReport.ReportStatus status = status(random);
+            reports.add(WasteReport.builder()
+                    .id(100_000L + i)
+                    .reporter(users.get(random.nextInt(users.size())))
+                    .latitude(coordinate(CENTER_LATITUDE, random))
+                    .longitude(coordinate(CENTER_LONGITUDE, random))
+                    .imageUrl("sha256:" + hex(random, 32))
+                    .description(description(random))
+                    .status(status)
+                    .coinsAwarded(status == WasteReport.ReportStatus.COLLECTED ? 10 : 0)
+                    .collector(status == WasteReport.ReportStatus.OPEN ? null
+                            : users.get(random.nextInt(users.size())))
+                    .reportedAt(EPOCH.plusSeconds(random.nextInt(30_000_000)))
+                    .collectedAt(status == WasteReport.ReportStatus.COLLECTED
+                            ? EPOCH.plusSeconds(30_000_000L + random.nextInt(1_000_000)) : null)
+                    .build());
+        }
+        return reports;
+    }
+
+    /** List projections, as returned by the paged list queries */
+    public static List<WasteReportCard> cards(int count, long seed) {
+        return reports(count, seed).stream()
+                .map(report -> new WasteReportCard(report.getId(), report.getReporter().getId(),
+                        report.getReporter().getDisplayName(), report.getLatitude(), report.getLongitude(),
+                        report.getImageUrl(), report.getStatus(), report.getCoinsAwarded(),
+                        report.getCollector() != null ? report.getCollector().getId() : null,
+                        report.getCollector() != null ? report.getCollector().getDisplayName() : null,
+                        report.getReportedAt(), report.getCollectedAt()))
+                .toList();
+    }
+
+    /** Creation events for OPEN reports, to fill the in-memory index */
+    public static List<ReportLifecycleEvent> openReportEvents(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<ReportLifecycleEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(new ReportLifecycleEvent(ReportLifecycleEvent.Type.CREATED, (long) i, null,
+                    WasteReport.ReportStatus.OPEN,
+                    coordinate(CENTER_LATITUDE, random).doubleValue(),
+                    coordinate(CENTER_LONGITUDE, random).doubleValue(),
+                    null, EPOCH));
+        }
+        return events;
+    }
+
+    /** Query points within the report area */
+    public static double[][] positions(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] positions = new double[count][];
+        for (int i = 0; i < count; i++) {
+            positions[i] = new double[] {
+                    CENTER_LATITUDE + random.nextDouble(-SPREAD_DEGREES, SPREAD_DEGREES),
+                    CENTER_LONGITUDE + random.nextDouble(-SPREAD_DEGREES, SPREAD_DEGREES)};
+        }
+        return positions;
+    }
+
+    /**
+     * Authorization header values shaped like Firebase ID tokens: an RS256 JWT
+     * of roughly 1KB (header with key id, claims with Firebase fields, 256-byte
+     * signature).
+     */
+    public static String[] authorizationHeaders(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String[] headers = new String[count];
+        for (int i = 0; i < count; i++) {
+            String header = "{\"alg\":\"RS256\",\"kid\":\"" + hex(random, 20) + "\",\"typ\":\"JWT\"}";
+            String uid = hex(random, 14);
+            long issuedAt = 1_700_000_000L + random.nextInt(10_000_000);
+            String claims = "{\"name\":\"" + name(random) + "\",\"picture\":\"https://lh3.googleusercontent.com/a/"
+                    + hex(random, 24) + "\",\"iss\":\"https://securetoken.google.com/greencoin\","
+                    + "\"aud\":\"greencoin\",\"auth_time\":" + issuedAt + ",\"user_id\":\"" + uid + "\","
+                    + "\"sub\":\"" + uid + "\",\"iat\":" + issuedAt + ",\"exp\":" + (issuedAt + 3600)
+                    + ",\"email\":\"user" + i + "@example.com\",\"email_verified\":true,"
+                    + "\"firebase\":{\"identities\":{\"google.com\":[\"" + random.nextLong(1L << 62) + "\"],"
+                    + "\"email\":[\"user" + i + "@example.com\"]},\"sign_in_provider\":\"google.com\"}}";
+            byte[] signature = new byte[256];
+            random.nextBytes(signature);
+            headers[i] = "Bearer " + encoder.encodeToString(header.getBytes()) + "."
+                    + encoder.encodeToString(claims.getBytes()) + "." + encoder.encodeToString(signature);
+        }
+        return headers;
+    }
+
+    private static List<User> users(int count, SplittableRandom random) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .id(1_000L + i)
+                    .firebaseUid(hex(random, 14))
+                    .email("user" + i + "@example.com")
+                    .displayName(name(random))
+                    .role(i % 10 == 0 ? User.UserRole.COLLECTOR : User.UserRole.CITIZEN)
+                    .createdAt(EPOCH)
+                    .build());
+        }
+        return users;
+    }
+
+    /** Roughly the status mix of a live deployment: mostly collected, a backlog of open */
+    private static WasteReport.ReportStatus status(SplittableRandom random) {
+        int roll = random.nextInt(10);
+        if (roll < 3) {
+            return WasteReport.ReportStatus.OPEN;
+        }
+        return roll < 4 ? WasteReport.ReportStatus.PICKING : WasteReport.ReportStatus.COLLECTED;
+    }
+
+    private static BigDecimal coordinate(double center, SplittableRandom random) {
+        // Columns are DOUBLE PRECISION, so values carry full double precision
+        return BigDecimal.valueOf(center + random.nextDouble(-SPREAD_DEGREES, SPREAD_DEGREES));
+    }
+
+    private static String description(SplittableRandom random) {
+        String[] parts = {"Plastic bags", "Construction debris", "Garden waste", "Broken furniture",
+                "Overflowing bin", "Mixed household waste"};
+        String where = " near the " + (random.nextBoolean() ? "bus stop" : "park entrance");
+        return parts[random.nextInt(parts.length)] + where + ", about " + (1 + random.nextInt(20)) + " bags";
+    }
+
+    private static String name(SplittableRandom random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private static String hex(SplittableRandom random, int bytes) {
+        StringBuilder builder = new StringBuilder(bytes * 2);
+        for (int i = 0; i < bytes; i++) {
+            builder.append(String.format("%02x", random.nextInt(256)));
+        }
+        return builder.toString();
+    }
+}
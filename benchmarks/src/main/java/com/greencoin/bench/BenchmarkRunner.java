@@ -0,0 +1,68 @@
+package com.greencoin.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Entry point of benchmarks.jar.
+ *
+ * Takes the usual JMH command line, but unless -rf/-rff are given writes the
+ * results as JSON to results/&lt;backend version&gt;-&lt;timestamp&gt;.json.
+ * {@code compare <baseline.json> <current.json> [threshold%]} runs
+ * {@link ResultComparison} instead.
+ */
+public final class BenchmarkRunner {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("compare")) {
+            System.exit(ResultComparison.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            Path results = Path.of("results");
+            Files.createDirectories(results);
+            String fileName = backendVersion() + "-" + LocalDateTime.now().format(TIMESTAMP) + ".json";
+            options.result(results.resolve(fileName).toString());
+        }
+        new Runner(options.build()).run();
+    }
+
+    private static String backendVersion() throws IOException {
+        try (InputStream in = BenchmarkRunner.class.getResourceAsStream(
+                "/META-INF/maven/com.greencoin/backend/pom.properties")) {
+            if (in == null) {
+                return "unknown";
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return properties.getProperty("version", "unknown");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.greencoin.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark.
+ *
+ * A benchmark regressed when its score got worse by more than the threshold
+ * (default 10%) and by more than the two runs' error bars combined. Exits
+ * with 1 if anything regressed, so it can gate a release build.
+ */
+public final class ResultComparison {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    private ResultComparison() {
+    }
+
+    static int run(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: compare <baseline.json> <current.json> [threshold%]");
+            return 2;
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-75s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : new TreeMap<>(current).entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-75s %14s %14.3f %9s%n", entry.getKey(), "-", now.value, "new");
+                continue;
+            }
+            // Positive change is always "worse", whichever way the mode counts
+            double change = (now.value - before.value) / before.value * 100 * (now.higherIsBetter ? -1 : 1);
+            boolean regressed = change > threshold && Math.abs(now.value - before.value) > now.error + before.error;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-75s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), before.value, now.value, change,
+                    now.unit, regressed ? "  REGRESSION" : "");
+        }
+        System.out.printf("%d regression(s) beyond %.1f%%%n", regressions, threshold);
+        return regressions > 0 ? 1 : 0;
+    }
+
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file.toFile())) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                    .replace("com.greencoin.", ""));
+            result.path("params").fields().forEachRemaining(param ->
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            JsonNode metric = result.path("primaryMetric");
+            String mode = result.path("mode").asText();
+            double error = metric.path("scoreError").asDouble();
+            scores.put(key.toString(), new Score(metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, metric.path("scoreUnit").asText(), mode.equals("thrpt")));
+        }
+        return scores;
+    }
+
+    private record Score(double value, double error, String unit, boolean higherIsBetter) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.greencoin.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.greencoin.bench.BenchmarkData;
+import com.greencoin.dto.WasteReportResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a page of {@link WasteReportResponse}s, with an
+ * ObjectMapper configured the way Spring MVC configures its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportJsonBenchmark {
+
+    @Param({"50", "200"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private List<WasteReportResponse> listPage;
+    private List<WasteReportResponse> fullPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        listPage = BenchmarkData.cards(pageSize, BenchmarkData.SEED).stream()
+                .map(WasteReportController::mapToListResponse)
+                .toList();
+        fullPage = BenchmarkData.reports(pageSize, BenchmarkData.SEED).stream()
+                .map(WasteReportController::mapToResponse)
+                .toList();
+    }
+
+    /** List endpoints: thumbnail URL, no description */
+    @Benchmark
+    public byte[] serializeListPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(listPage);
+    }
+
+    /** Full responses, with description */
+    @Benchmark
+    public byte[] serializeFullPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(fullPage);
+    }
+}
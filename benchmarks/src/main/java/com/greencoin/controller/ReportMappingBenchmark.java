@@ -0,0 +1,59 @@
+package com.greencoin.controller;
+
+import com.greencoin.bench.BenchmarkData;
+import com.greencoin.dto.WasteReportCard;
+import com.greencoin.model.WasteReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity and list-projection mapping for one page of reports
+ * (50 is the default page size, 200 the maximum).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportMappingBenchmark {
+
+    @Param({"50", "200"})
+    private int pageSize;
+
+    private List<WasteReport> reports;
+    private List<WasteReportCard> cards;
+
+    @Setup
+    public void setUp() {
+        reports = BenchmarkData.reports(pageSize, BenchmarkData.SEED);
+        cards = BenchmarkData.cards(pageSize, BenchmarkData.SEED);
+    }
+
+    @Benchmark
+    public void mapToResponse(Blackhole blackhole) {
+        for (WasteReport report : reports) {
+            blackhole.consume(WasteReportController.mapToResponse(report));
+        }
+    }
+
+    @Benchmark
+    public void mapToListResponse(Blackhole blackhole) {
+        for (WasteReportCard card : cards) {
+            blackhole.consume(WasteReportController.mapToListResponse(card));
+        }
+    }
+}
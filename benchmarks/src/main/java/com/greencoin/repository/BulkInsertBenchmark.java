@@ -0,0 +1,124 @@
+package com.greencoin.repository;
+
+import com.greencoin.bench.BenchmarkData;
+import com.greencoin.model.CoinTransaction;
+import com.greencoin.model.User;
+import com.greencoin.model.WasteReport;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persisting 100 reports, and 100 coin transactions, in one transaction
+ * through Hibernate with the backend's entity mappings and JDBC batch
+ * settings. Scores are rows per second, so they show how many round trips
+ * ID generation costs. Needs a Postgres database (PGHOST, PGPORT,
+ * PGDATABASE, PGUSER, PGPASSWORD); tables go in a {@code bench} schema that
+ * is dropped afterwards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final int ROWS = 100;
+
+    private SessionFactory sessionFactory;
+    private User reporter;
+    private double[][] positions;
+
+    @Setup
+    public void setUp() {
+        String url = "jdbc:postgresql://" + env("PGHOST", "localhost") + ":" + env("PGPORT", "5432") + "/"
+                + env("PGDATABASE", "postgres") + "?reWriteBatchedInserts=true";
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(WasteReport.class)
+                .addAnnotatedClass(CoinTransaction.class)
+                .setProperty(AvailableSettings.URL, url)
+                .setProperty(AvailableSettings.USER, env("PGUSER", "postgres"))
+                .setProperty(AvailableSettings.PASS, env("PGPASSWORD", ""))
+                .setProperty(AvailableSettings.DEFAULT_SCHEMA, "bench")
+                .setProperty(AvailableSettings.HBM2DDL_CREATE_SCHEMAS, "true")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                // Same as spring.jpa.properties in the backend's application.yml
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(AvailableSettings.ORDER_UPDATES, "true")
+                .buildSessionFactory();
+
+        reporter = User.builder().firebaseUid("bench-reporter").email("bench@example.com").build();
+        sessionFactory.inTransaction(session -> session.persist(reporter));
+        positions = BenchmarkData.positions(ROWS, BenchmarkData.SEED);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        sessionFactory.inTransaction(session -> session
+                .createNativeMutationQuery("TRUNCATE bench.waste_reports, bench.coin_transactions")
+                .executeUpdate());
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void reports() {
+        sessionFactory.inTransaction(session -> {
+            User user = session.getReference(User.class, reporter.getId());
+            for (double[] position : positions) {
+                session.persist(WasteReport.builder()
+                        .reporter(user)
+                        .latitude(BigDecimal.valueOf(position[0]))
+                        .longitude(BigDecimal.valueOf(position[1]))
+                        .imageUrl("https://storage.example.com/reports/bench.jpg")
+                        .description("Overflowing bin")
+                        .build());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void coinTransactions() {
+        sessionFactory.inTransaction(session -> {
+            User user = session.getReference(User.class, reporter.getId());
+            for (int i = 0; i < ROWS; i++) {
+                session.persist(CoinTransaction.builder()
+                        .user(user)
+                        .amount(10)
+                        .transactionType(CoinTransaction.TransactionType.EARNED)
+                        .referenceId((long) i)
+                        .referenceType("WASTE_REPORT")
+                        .build());
+            }
+        });
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? fallback : value;
+    }
+}
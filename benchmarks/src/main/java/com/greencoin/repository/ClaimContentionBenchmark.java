@@ -0,0 +1,179 @@
+package com.greencoin.repository;
+
+import com.greencoin.bench.BenchmarkData;
+import com.greencoin.model.User;
+import com.greencoin.model.WasteReport;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collectors racing to claim the same OPEN reports with
+ * {@link WasteReportRepository#claimOpenReport}, run as the same SQL. Each
+ * JMH thread is one collector (8 by default, change with {@code -t}) picking
+ * at random among {@code reports} OPEN reports, so fewer reports means more
+ * collectors on the same row. A won claim is released again in a second
+ * transaction, so the reports stay contended; scores count attempts, and the
+ * {@code claimed}/{@code lost} counters split them. Needs Postgres like
+ * {@link BulkInsertBenchmark}, in the same {@code bench} schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class ClaimContentionBenchmark {
+
+    private static final String RELEASE_SQL =
+            "UPDATE waste_reports SET status = 'OPEN', collector_id = NULL, picked_at = NULL WHERE id = :id";
+
+    @Param({"1", "8", "1000"})
+    private int reports;
+
+    private SessionFactory sessionFactory;
+    private String claimSql;
+    private long[] reportIds;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        // The repository's own statement, with its named parameters
+        claimSql = WasteReportRepository.class
+                .getMethod("claimOpenReport", Long.class, Long.class, LocalDateTime.class)
+                .getAnnotation(Query.class)
+                .value();
+
+        String url = "jdbc:postgresql://" + env("PGHOST", "localhost") + ":" + env("PGPORT", "5432") + "/"
+                + env("PGDATABASE", "postgres") + "?currentSchema=bench";
+        sessionFactory = new Configuration()
+                // Spring Boot's column naming, which the repository's SQL is written against
+                .setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(WasteReport.class)
+                .setProperty(AvailableSettings.URL, url)
+                .setProperty(AvailableSettings.USER, env("PGUSER", "postgres"))
+                .setProperty(AvailableSettings.PASS, env("PGPASSWORD", ""))
+                .setProperty(AvailableSettings.DEFAULT_SCHEMA, "bench")
+                .setProperty(AvailableSettings.HBM2DDL_CREATE_SCHEMAS, "true")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                // One connection per collector thread
+                .setProperty(AvailableSettings.POOL_SIZE, "64")
+                .buildSessionFactory();
+
+        User reporter = User.builder().firebaseUid("bench-reporter").email("bench@example.com").build();
+        double[][] positions = BenchmarkData.positions(reports, BenchmarkData.SEED);
+        reportIds = new long[reports];
+        sessionFactory.inTransaction(session -> {
+            session.persist(reporter);
+            for (int i = 0; i < reports; i++) {
+                WasteReport report = WasteReport.builder()
+                        .reporter(reporter)
+                        .latitude(BigDecimal.valueOf(positions[i][0]))
+                        .longitude(BigDecimal.valueOf(positions[i][1]))
+                        .imageUrl("https://storage.example.com/reports/bench.jpg")
+                        .description("Overflowing bin")
+                        .build();
+                session.persist(report);
+                session.flush();
+                reportIds[i] = report.getId();
+            }
+        });
+    }
+
+    @Setup(Level.Iteration)
+    public void reopen() {
+        sessionFactory.inTransaction(session -> session
+                .createNativeMutationQuery("UPDATE waste_reports SET status = 'OPEN', collector_id = NULL, "
+                        + "picked_at = NULL")
+                .executeUpdate());
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    /** One collector: its own user row and random stream */
+    @State(Scope.Thread)
+    public static class Collector {
+        private static final AtomicLong NEXT_SEED = new AtomicLong(BenchmarkData.SEED);
+
+        long collectorId;
+        SplittableRandom random;
+
+        @Setup
+        public void setUp(ClaimContentionBenchmark benchmark) {
+            long seed = NEXT_SEED.getAndIncrement();
+            User collector = User.builder()
+                    .firebaseUid("bench-collector-" + seed)
+                    .email("bench-collector-" + seed + "@example.com")
+                    .role(User.UserRole.COLLECTOR)
+                    .build();
+            benchmark.sessionFactory.inTransaction(session -> session.persist(collector));
+            collectorId = collector.getId();
+            random = new SplittableRandom(seed);
+        }
+    }
+
+    /** Claim outcomes per iteration, reported next to the score */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long claimed;
+        public long lost;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            claimed = 0;
+            lost = 0;
+        }
+    }
+
+    @Benchmark
+    public int claim(Collector collector, Outcomes outcomes) {
+        long reportId = reportIds[collector.random.nextInt(reportIds.length)];
+        int updated = sessionFactory.fromTransaction(session -> session.createNativeMutationQuery(claimSql)
+                .setParameter("id", reportId)
+                .setParameter("collectorId", collector.collectorId)
+                .setParameter("pickedAt", LocalDateTime.now())
+                .executeUpdate());
+        if (updated == 0) {
+            outcomes.lost++;
+            return 0;
+        }
+        outcomes.claimed++;
+        sessionFactory.inTransaction(session -> session.createNativeMutationQuery(RELEASE_SQL)
+                .setParameter("id", reportId)
+                .executeUpdate());
+        return updated;
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? fallback : value;
+    }
+}
@@ -0,0 +1,57 @@
+package com.greencoin.security;
+
+import com.greencoin.bench.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token handling before any verification: extracting the token
+ * from the Authorization header, and hashing it into a token cache key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenParsingBenchmark {
+
+    private static final int HEADERS = 1024;
+
+    private String[] headers;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        headers = BenchmarkData.authorizationHeaders(HEADERS, BenchmarkData.SEED);
+        tokens = new String[HEADERS];
+        for (int i = 0; i < HEADERS; i++) {
+            tokens[i] = FirebaseTokenFilter.bearerToken(headers[i]);
+        }
+    }
+
+    @Benchmark
+    public String bearerToken() {
+        String header = headers[next];
+        next = (next + 1) & (HEADERS - 1);
+        return FirebaseTokenFilter.bearerToken(header);
+    }
+
+    @Benchmark
+    public String tokenCacheKey() {
+        String token = tokens[next];
+        next = (next + 1) & (HEADERS - 1);
+        return VerifiedTokenCache.hash(token);
+    }
+}
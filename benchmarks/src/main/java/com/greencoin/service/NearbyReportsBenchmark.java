@@ -0,0 +1,86 @@
+package com.greencoin.service;
+
+import com.greencoin.bench.BenchmarkData;
+import com.greencoin.event.ReportLifecycleEvent;
+import com.greencoin.geo.GeoGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One nearby query (10km, up to 200 results, the defaults) against a city's
+ * worth of OPEN reports: through {@link OpenReportIndex}, and as the database
+ * fallback does it, by computing and sorting the distance to every report.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearbyReportsBenchmark {
+
+    private static final double RADIUS_KM = 10;
+    private static final int LIMIT = 200;
+    private static final int POSITIONS = 256;
+
+    @Param({"1000", "10000"})
+    private int openReports;
+
+    private OpenReportIndex index;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[][] positions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<ReportLifecycleEvent> events = BenchmarkData.openReportEvents(openReports, BenchmarkData.SEED);
+        // Only rebuild() reads the repository, and it is never called here
+        index = new OpenReportIndex(null, 0.05, openReports);
+        events.forEach(index::onReportEvent);
+
+        latitudes = events.stream().mapToDouble(ReportLifecycleEvent::latitude).toArray();
+        longitudes = events.stream().mapToDouble(ReportLifecycleEvent::longitude).toArray();
+        positions = BenchmarkData.positions(POSITIONS, BenchmarkData.SEED + 1);
+    }
+
+    @Benchmark
+    public List<OpenReportIndex.Hit> indexFindWithin() {
+        double[] position = nextPosition();
+        return index.findWithin(position[0], position[1], RADIUS_KM, LIMIT);
+    }
+
+    @Benchmark
+    public double[] distanceScanAndSort() {
+        double[] position = nextPosition();
+        double[] distances = new double[latitudes.length];
+        int hits = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            double distance = GeoGrid.distanceKm(position[0], position[1], latitudes[i], longitudes[i]);
+            if (distance <= RADIUS_KM) {
+                distances[hits++] = distance;
+            }
+        }
+        Arrays.sort(distances, 0, hits);
+        return Arrays.copyOf(distances, Math.min(hits, LIMIT));
+    }
+
+    private double[] nextPosition() {
+        double[] position = positions[next];
+        next = (next + 1) & (POSITIONS - 1);
+        return position;
+    }
+}
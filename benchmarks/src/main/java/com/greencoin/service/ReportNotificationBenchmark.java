@@ -0,0 +1,48 @@
+package com.greencoin.service;
+
+import com.greencoin.bench.BenchmarkData;
+import com.greencoin.model.WasteReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload built for every report notification. Reports are cycled so the
+ * measurement is not of one hot object.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportNotificationBenchmark {
+
+    private static final int REPORTS = 1024;
+
+    private List<WasteReport> reports;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        reports = BenchmarkData.reports(REPORTS, BenchmarkData.SEED);
+    }
+
+    @Benchmark
+    public Map<String, Object> createLightweightReportMap() {
+        WasteReport report = reports.get(next);
+        next = (next + 1) & (REPORTS - 1);
+        return WebSocketService.createLightweightReportMap(report);
+    }
+}
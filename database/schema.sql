@@ -22,7 +22,7 @@ CREATE TABLE IF NOT EXISTS collector_whitelist (
 
 -- Waste Reports
 CREATE TABLE IF NOT EXISTS waste_reports (
-    id SERIAL PRIMARY KEY,
+    id BIGSERIAL PRIMARY KEY,
     reporter_id INTEGER REFERENCES users(id),
     latitude DOUBLE PRECISION NOT NULL,
     longitude DOUBLE PRECISION NOT NULL,
@@ -33,12 +33,29 @@ CREATE TABLE IF NOT EXISTS waste_reports (
     collector_id INTEGER REFERENCES users(id),
     reported_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     picked_at TIMESTAMP,
-    collected_at TIMESTAMP
+    collected_at TIMESTAMP,
+    change_seq BIGINT, -- set by waste_reports_change_seq_trigger
+    change_xid BIGINT -- id of the writing transaction, set by the same trigger
 );
 
+-- Delta sync: every insert/update of a report takes the next change sequence value
+CREATE SEQUENCE IF NOT EXISTS waste_reports_change_seq;
+
+CREATE OR REPLACE FUNCTION waste_reports_set_change_seq() RETURNS trigger AS $$
+BEGIN
+    NEW.change_seq := nextval('waste_reports_change_seq');
+    NEW.change_xid := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS waste_reports_change_seq_trigger ON waste_reports;
+CREATE TRIGGER waste_reports_change_seq_trigger BEFORE INSERT OR UPDATE ON waste_reports
+    FOR EACH ROW EXECUTE FUNCTION waste_reports_set_change_seq();
+
 -- Coin Transactions
 CREATE TABLE IF NOT EXISTS coin_transactions (
-    id SERIAL PRIMARY KEY,
+    id BIGSERIAL PRIMARY KEY,
     user_id INTEGER REFERENCES users(id),
     amount INTEGER NOT NULL,
     transaction_type VARCHAR(50) NOT NULL, -- EARNED, REDEEMED
@@ -47,7 +64,66 @@ CREATE TABLE IF NOT EXISTS coin_transactions (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- WebSocket notifications, published after the recording transaction commits
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    partition_key VARCHAR(255) NOT NULL, -- report:<id>, user:<id>
+    destination VARCHAR(255) NOT NULL,
+    user_name VARCHAR(255),
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP,
+    attempts INTEGER DEFAULT 0,
+    claimed_until TIMESTAMP, -- set by the sweep that re-enqueued the event
+    failed_at TIMESTAMP -- dead-lettered after outbox.dead-letter-after attempts
+);
+
+-- Authority heatmap: reports per 0.01 degree tile and HOUR/DAY of reported_at, by current status
+CREATE TABLE IF NOT EXISTS report_rollups (
+    granularity VARCHAR(4) NOT NULL, -- HOUR, DAY
+    bucket TIMESTAMP NOT NULL,
+    tile_row INTEGER NOT NULL,
+    tile_col INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    report_count BIGINT NOT NULL,
+    PRIMARY KEY (granularity, bucket, tile_row, tile_col, status)
+);
+
+-- Rollup rebuild scratch space: reports minus rollups per key, added to report_rollups in batches
+CREATE UNLOGGED TABLE IF NOT EXISTS report_rollup_corrections (
+    id BIGINT PRIMARY KEY, -- batch order, the same row order as report writes lock in
+    granularity VARCHAR(4) NOT NULL,
+    bucket TIMESTAMP NOT NULL,
+    tile_row INTEGER NOT NULL,
+    tile_col INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    report_count BIGINT NOT NULL
+);
+
+-- Images stored for a report that was never saved; deleted by a sweep once unreferenced
+CREATE TABLE IF NOT EXISTS orphaned_images (
+    digest CHAR(64) PRIMARY KEY,
+    discarded_at TIMESTAMP NOT NULL
+);
+
+-- Hibernate takes report and coin transaction ids 50 at a time (allocationSize)
+ALTER SEQUENCE waste_reports_id_seq INCREMENT BY 50;
+ALTER SEQUENCE coin_transactions_id_seq INCREMENT BY 50;
+
 -- Indexes for performance
 CREATE INDEX IF NOT EXISTS idx_waste_reports_status ON waste_reports(status);
 CREATE INDEX IF NOT EXISTS idx_waste_reports_coords ON waste_reports(latitude, longitude);
 CREATE INDEX IF NOT EXISTS idx_users_firebase_uid ON users(firebase_uid);
+
+-- Keyset pagination: (filter, reported_at/created_at, id) in list order
+CREATE INDEX IF NOT EXISTS idx_waste_reports_status_reported ON waste_reports(status, reported_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_waste_reports_reporter_reported ON waste_reports(reporter_id, reported_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_waste_reports_collector_reported ON waste_reports(collector_id, reported_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_coin_transactions_user_created ON coin_transactions(user_id, created_at DESC, id DESC);
+
+-- Delta sync: changes by transactions from a given id on, in change order
+CREATE INDEX IF NOT EXISTS idx_waste_reports_change_seq ON waste_reports(change_seq);
+CREATE INDEX IF NOT EXISTS idx_waste_reports_change_xid ON waste_reports(change_xid);
+
+-- Outbox sweep: unpublished events only
+CREATE INDEX IF NOT EXISTS idx_outbox_events_unpublished ON outbox_events(id) WHERE published_at IS NULL;
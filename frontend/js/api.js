@@ -11,12 +11,21 @@ class APIClient {
     }
 
     // Get auth headers
-    getHeaders() {
+    getHeaders(body) {
         const idToken = localStorage.getItem('idToken');
-        return {
-            'Authorization': `Bearer ${idToken}`,
-            'Content-Type': 'application/json'
+        const headers = {
+            'Authorization': `Bearer ${idToken}`
         };
+        // Let the browser set the multipart boundary for FormData bodies
+        if (!(body instanceof FormData)) {
+            headers['Content-Type'] = 'application/json';
+        }
+        return headers;
+    }
+
+    // Resolve a backend-relative path (e.g. /api/images/...) to an absolute URL
+    resolveUrl(path) {
+        return path && path.startsWith('/') ? `${this.baseURL}${path}` : path;
     }
 
     // Refresh token if needed
@@ -28,7 +37,7 @@ class APIClient {
         }
     }
 
-    // Generic API call
+    // Generic API call; with options.withHeaders, returns { body, headers }
     async call(endpoint, options = {}, retryCount = 0) {
         const url = `${this.baseURL}${endpoint}`;
         console.log(`[API] Request: ${options.method || 'GET'} ${url} (Retry: ${retryCount})`);
@@ -37,9 +46,10 @@ class APIClient {
         const timeoutId = setTimeout(() => controller.abort(), 30000); // 30s timeout
 
         try {
+            const { withHeaders, ...fetchOptions } = options;
             const response = await fetch(url, {
-                ...options,
-                headers: this.getHeaders(),
+                ...fetchOptions,
+                headers: this.getHeaders(options.body),
                 signal: controller.signal
             });
             clearTimeout(timeoutId);
@@ -76,7 +86,8 @@ class APIClient {
             }
 
             const content = await response.text();
-            return content ? JSON.parse(content) : null;
+            const body = content ? JSON.parse(content) : null;
+            return withHeaders ? { body, headers: response.headers } : body;
         } catch (error) {
             clearTimeout(timeoutId);
             if (error.name === 'AbortError') {
@@ -101,20 +112,53 @@ class APIClient {
         });
     }
 
+    // Multipart upload: the photo is streamed to the backend as a file part
+    async createReportWithImage(formData) {
+        return this.call('/api/reports', {
+            method: 'POST',
+            body: formData
+        });
+    }
+
+    /**
+     * Every item of a paged list endpoint, newest first: follows X-Next-Cursor
+     * until the last page.
+     */
+    async getAllPages(endpoint, limit = 200) {
+        const items = [];
+        let cursor = null;
+        do {
+            const cursorParam = cursor ? `&cursor=${encodeURIComponent(cursor)}` : '';
+            const page = await this.call(`${endpoint}?limit=${limit}${cursorParam}`, { withHeaders: true });
+            items.push(...page.body);
+            cursor = page.headers.get('X-Next-Cursor');
+        } while (cursor);
+        return items;
+    }
+
     async getAvailableReports() {
-        return this.call('/api/reports/available');
+        return this.getAllPages('/api/reports/available');
+    }
+
+    /**
+     * Reports created or changed since the latestSeq of an earlier response.
+     * Without since, only returns the current position ({ fullReload: true, latestSeq }).
+     */
+    async getReportChanges(since = null) {
+        const query = since === null ? '' : `?since=${since}`;
+        return this.call(`/api/reports/changes${query}`);
     }
 
-    async getNearbyReports(lat, lng) {
-        return this.call(`/api/reports/nearby?latitude=${lat}&longitude=${lng}`);
+    async getNearbyReports(lat, lng, radiusKm = 10) {
+        return this.call(`/api/reports/nearby?latitude=${lat}&longitude=${lng}&radiusKm=${radiusKm}`);
     }
 
     async getMyReports() {
-        return this.call('/api/reports/my-reports');
+        return this.getAllPages('/api/reports/my-reports');
     }
 
     async getMyPickups() {
-        return this.call('/api/reports/my-pickups');
+        return this.getAllPages('/api/reports/my-pickups');
     }
 
     async markPicking(reportId) {
@@ -133,9 +177,23 @@ class APIClient {
         return this.call(`/api/reports/${reportId}`);
     }
 
+    /**
+     * Report counts per map cell for a viewport (authority only).
+     * params: south, west, north, east, and optionally from, to (ISO date-times),
+     * cellDegrees and status (array).
+     */
+    async getHeatmap(params) {
+        const query = new URLSearchParams();
+        Object.entries(params).forEach(([key, value]) => {
+            if (value === undefined || value === null) return;
+            (Array.isArray(value) ? value : [value]).forEach(item => query.append(key, item));
+        });
+        return this.call(`/api/reports/heatmap?${query}`);
+    }
+
     // Transaction APIs
-    async getTransactions() {
-        return this.call('/api/coins/transactions');
+    async getTransactions(limit = 50) {
+        return this.call(`/api/coins/transactions?limit=${limit}`);
     }
 
     async getCoinBalance() {
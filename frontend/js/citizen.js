@@ -172,18 +172,6 @@ function clearImage() {
     document.getElementById('imagePreview').style.display = 'none';
 }
 
-/**
- * Convert File/Blob to Base64
- */
-async function fileToBase64(file) {
-    return new Promise((resolve, reject) => {
-        const reader = new FileReader();
-        reader.readAsDataURL(file);
-        reader.onload = () => resolve(reader.result);
-        reader.onerror = error => reject(error);
-    });
-}
-
 // Set up form submission
 document.getElementById('reportForm')?.addEventListener('submit', async (e) => {
     e.preventDefault();
@@ -209,18 +197,15 @@ document.getElementById('reportForm')?.addEventListener('submit', async (e) => {
         submitBtn.disabled = true;
         submitBtn.textContent = 'Submitting...';
 
-        console.log('Step 1: Converting image to Base64...');
-        const base64Image = await fileToBase64(capturedBlob);
-        console.log('Step 1 Complete: Base64 string created (length: ' + base64Image.length + ')');
+        const formData = new FormData();
+        formData.append('latitude', parseFloat(latitude));
+        formData.append('longitude', parseFloat(longitude));
+        formData.append('description', description);
+        formData.append('image', capturedBlob, capturedBlob.name || 'photo.jpg');
 
-        console.log('Step 2: Submitting report to backend API...');
-        const report = await api.createReport({
-            latitude: parseFloat(latitude),
-            longitude: parseFloat(longitude),
-            imageUrl: base64Image, // Sending Base64 string directly
-            description: description
-        });
-        console.log('Step 2 Complete: Report created:', report);
+        console.log('Submitting report to backend API (image size: ' + capturedBlob.size + ' bytes)...');
+        const report = await api.createReportWithImage(formData);
+        console.log('Report created:', report);
 
         // Success!
         alert('✅ Report submitted successfully! You will earn 50 coins when collected.');
@@ -262,7 +247,7 @@ async function loadCoinBalance() {
 // Load transaction history
 async function loadTransactions() {
     try {
-        const transactions = await api.getTransactions();
+        const transactions = await api.getTransactions(5);
         const container = document.getElementById('transactionList');
 
         if (transactions.length === 0) {
@@ -6,6 +6,8 @@ let map;
 let markers = [];
 let userProfile = null;
 let currentLocation = null;
+let availableReports = new Map();
+let changeSeq = null;
 
 // Initialize dashboard
 async function init() {
@@ -35,8 +37,10 @@ async function init() {
     await loadMyPickups();
 
     // Setup WebSocket
-    wsClient.connect();
     wsClient.onNewReport(handleNewReport);
+    wsClient.onReconnect(syncReportChanges);
+    wsClient.updatePosition(map.getCenter().lat, map.getCenter().lng);
+    wsClient.connect();
 }
 
 // Initialize Leaflet map
@@ -47,6 +51,13 @@ function initMap() {
         attribution: '© OpenStreetMap contributors',
         maxZoom: 19
     }).addTo(map);
+
+    // Only receive report events for the area around the map (or our location)
+    map.on('moveend', () => {
+        if (!currentLocation) {
+            wsClient.updatePosition(map.getCenter().lat, map.getCenter().lng);
+        }
+    });
 }
 
 // Use current location
@@ -60,6 +71,7 @@ function useMyLocation() {
                 };
 
                 map.setView([currentLocation.lat, currentLocation.lng], 14);
+                wsClient.updatePosition(currentLocation.lat, currentLocation.lng);
 
                 // Add marker
                 L.marker([currentLocation.lat, currentLocation.lng])
@@ -96,13 +108,43 @@ async function loadNearbyReports() {
 // Load all available reports
 async function loadAvailableReports() {
     try {
+        // Take the change baseline first, so nothing written during the load is missed
+        const baseline = await api.getReportChanges();
         const reports = await api.getAvailableReports();
+        changeSeq = baseline.latestSeq;
+        availableReports = new Map(reports.map(report => [report.id, report]));
         displayReportsOnMap(reports);
     } catch (error) {
         console.error('Failed to load reports:', error);
     }
 }
 
+// Apply only the reports changed since the last sync (live events, reconnects)
+async function syncReportChanges() {
+    if (changeSeq === null) {
+        return loadAvailableReports();
+    }
+
+    try {
+        const changes = await api.getReportChanges(changeSeq);
+        if (changes.fullReload) {
+            return loadAvailableReports();
+        }
+
+        changes.items.forEach(report => {
+            if (report.status === 'OPEN') {
+                availableReports.set(report.id, report);
+            } else {
+                availableReports.delete(report.id);
+            }
+        });
+        changeSeq = changes.latestSeq;
+        displayReportsOnMap([...availableReports.values()]);
+    } catch (error) {
+        console.error('Failed to sync report changes:', error);
+    }
+}
+
 // Display reports on map
 function displayReportsOnMap(reports) {
     // Clear existing markers
@@ -119,7 +161,8 @@ function displayReportsOnMap(reports) {
             fillOpacity: 0.8
         }).addTo(map);
 
-        marker.on('click', () => showReportDetails(report));
+        // List items only carry a thumbnail, load the full report on click
+        marker.on('click', () => showReportDetailsById(report.id));
         markers.push(marker);
     });
 
@@ -139,7 +182,7 @@ function showReportDetails(report) {
 
     title.textContent = `Report #${report.id}`;
     content.innerHTML = `
-        <img src="${report.imageUrl}" style="width: 100%; border-radius: 8px; margin-bottom: 1rem;" />
+        <img src="${api.resolveUrl(report.imageUrl)}" style="width: 100%; border-radius: 8px; margin-bottom: 1rem;" />
         <p><strong>Status:</strong> <span class="status-badge status-${report.status.toLowerCase()}">${report.status}</span></p>
         <p><strong>Description:</strong> ${report.description || 'No description'}</p>
         <p><strong>Location:</strong> ${report.latitude.toFixed(5)}, ${report.longitude.toFixed(5)}</p>
@@ -249,7 +292,7 @@ async function loadMyPickups() {
                 fillOpacity: 0.8
             }).addTo(map);
 
-            marker.on('click', () => showReportDetails(pickup));
+            marker.on('click', () => showReportDetailsById(pickup.id));
             markers.push(marker);
         });
 
@@ -280,9 +323,9 @@ function handleNewReport(data) {
         });
     }
 
-    // Refresh the map and records
-    console.log('Refreshing dashboard data...');
-    loadAvailableReports();
+    // Fetch just what changed instead of reloading the whole list
+    console.log('Syncing dashboard data...');
+    syncReportChanges();
 }
 
 // Request notification permission on load
@@ -8,10 +8,14 @@ class WebSocketClient {
     constructor() {
         this.stompClient = null;
         this.connected = false;
+        this.hasConnected = false;
+        this.position = null;
+        this.tileSubscriptions = new Map();
         this.callbacks = {
             newReport: [],
             statusChange: [],
-            coinUpdate: []
+            coinUpdate: [],
+            reconnect: []
         };
     }
 
@@ -22,15 +26,29 @@ class WebSocketClient {
         // Disable debug logging
         this.stompClient.debug = null;
 
-        this.stompClient.connect({}, (frame) => {
+        // The token identifies this session, so /user/queue/coins can be routed to it
+        const idToken = localStorage.getItem('idToken');
+        const headers = idToken ? { Authorization: `Bearer ${idToken}` } : {};
+
+        this.stompClient.connect(headers, (frame) => {
             console.log('✅ WebSocket connected');
             this.connected = true;
 
-            // Subscribe to new reports (for collectors)
-            this.stompClient.subscribe('/topic/reports/new', (message) => {
-                const data = JSON.parse(message.body);
-                this.callbacks.newReport.forEach(cb => cb(data));
+            // Events sent while we were offline are lost; let pages catch up
+            if (this.hasConnected) {
+                this.callbacks.reconnect.forEach(cb => cb());
+            }
+            this.hasConnected = true;
+
+            // Report events are published per geotile; the server tells us which tiles
+            // cover our position, and we resubscribe whenever that set changes
+            this.tileSubscriptions.clear();
+            this.stompClient.subscribe('/user/queue/tiles', (message) => {
+                this.applyTiles(JSON.parse(message.body).topics);
             });
+            if (this.position) {
+                this.sendPosition();
+            }
 
             // Subscribe to personal coin updates
             const userProfile = JSON.parse(localStorage.getItem('userProfile'));
@@ -48,6 +66,41 @@ class WebSocketClient {
         });
     }
 
+    /**
+     * Set the position new-report events should be received around
+     * (collectors: own location or map center). Safe to call before connect.
+     */
+    updatePosition(lat, lng) {
+        this.position = { latitude: lat, longitude: lng };
+        if (this.connected) {
+            this.sendPosition();
+        }
+    }
+
+    sendPosition() {
+        this.stompClient.send('/app/reports/position', {}, JSON.stringify(this.position));
+    }
+
+    applyTiles(topics) {
+        const wanted = new Set(topics);
+        this.tileSubscriptions.forEach((subscription, topic) => {
+            if (!wanted.has(topic)) {
+                subscription.unsubscribe();
+                this.tileSubscriptions.delete(topic);
+            }
+        });
+        wanted.forEach(topic => {
+            if (!this.tileSubscriptions.has(topic)) {
+                // Each frame carries a batch: the latest state of every report changed in the window
+                this.tileSubscriptions.set(topic, this.stompClient.subscribe(topic, (message) => {
+                    const data = JSON.parse(message.body);
+                    const reports = Array.isArray(data) ? data : [data];
+                    reports.forEach(report => this.callbacks.newReport.forEach(cb => cb(report)));
+                }));
+            }
+        });
+    }
+
     subscribeToReport(reportId, callback) {
         if (this.connected) {
             this.stompClient.subscribe(`/topic/reports/${reportId}/status`, (message) => {
@@ -69,6 +122,10 @@ class WebSocketClient {
         this.callbacks.coinUpdate.push(callback);
     }
 
+    onReconnect(callback) {
+        this.callbacks.reconnect.push(callback);
+    }
+
     disconnect() {
         if (this.stompClient) {
             this.stompClient.disconnect();
@@ -0,0 +1,159 @@
+package com.greencoin.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+
+/**
+ * The backend's REST API, timing every call under an endpoint name with path
+ * variables left as templates.
+ */
+public class ApiClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String BOUNDARY = "loadtest-boundary-7d1c";
+
+    private final URI baseUrl;
+    private final Metrics metrics;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    public ApiClient(URI baseUrl, Metrics metrics) {
+        this.baseUrl = baseUrl;
+        this.metrics = metrics;
+    }
+
+    public JsonNode register(String token, String displayName) {
+        return call("POST /api/user/register", token,
+                "/api/user/register?displayName=" + URLEncoder.encode(displayName, StandardCharsets.UTF_8),
+                HttpRequest.BodyPublishers.noBody(), "POST", null);
+    }
+
+    public JsonNode createReport(String token, double latitude, double longitude, byte[] jpeg) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(jpeg.length + 512);
+        field(body, "latitude", Double.toString(latitude));
+        field(body, "longitude", Double.toString(longitude));
+        field(body, "description", "Load test report");
+        write(body, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"image\"; filename=\"photo.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n");
+        body.writeBytes(jpeg);
+        write(body, "\r\n--" + BOUNDARY + "--\r\n");
+        return call("POST /api/reports (multipart)", token, "/api/reports",
+                HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()), "POST",
+                "multipart/form-data; boundary=" + BOUNDARY);
+    }
+
+    public JsonNode nearby(String token, double latitude, double longitude, double radiusKm) {
+        return get("GET /api/reports/nearby", token, String.format(Locale.ROOT,
+                "/api/reports/nearby?latitude=%.6f&longitude=%.6f&radiusKm=%.1f", latitude, longitude, radiusKm));
+    }
+
+    public JsonNode available(String token) {
+        return get("GET /api/reports/available", token, "/api/reports/available");
+    }
+
+    public JsonNode changes(String token, Long since) {
+        return get("GET /api/reports/changes", token,
+                "/api/reports/changes" + (since == null ? "" : "?since=" + since));
+    }
+
+    public JsonNode report(String token, long reportId) {
+        return get("GET /api/reports/{id}", token, "/api/reports/" + reportId);
+    }
+
+    public JsonNode myReports(String token) {
+        return get("GET /api/reports/my-reports", token, "/api/reports/my-reports");
+    }
+
+    public JsonNode myPickups(String token) {
+        return get("GET /api/reports/my-pickups", token, "/api/reports/my-pickups");
+    }
+
+    public JsonNode balance(String token) {
+        return get("GET /api/coins/balance", token, "/api/coins/balance");
+    }
+
+    public JsonNode transactions(String token) {
+        return get("GET /api/coins/transactions", token, "/api/coins/transactions");
+    }
+
+    /** @return true if this collector won the report */
+    public boolean pick(String token, long reportId) {
+        return patch("PATCH /api/reports/{id}/pick", token, "/api/reports/" + reportId + "/pick") != null;
+    }
+
+    public boolean collect(String token, long reportId) {
+        return patch("PATCH /api/reports/{id}/collect", token, "/api/reports/" + reportId + "/collect") != null;
+    }
+
+    private JsonNode get(String endpoint, String token, String path) {
+        return call(endpoint, token, path, null, "GET", null);
+    }
+
+    private JsonNode patch(String endpoint, String token, String path) {
+        return call(endpoint, token, path, HttpRequest.BodyPublishers.noBody(), "PATCH", null);
+    }
+
+    /**
+     * @return the parsed body (an empty object when there is none), or null
+     * when the call failed or conflicted
+     */
+    private JsonNode call(String endpoint, String token, String path, HttpRequest.BodyPublisher body,
+            String method, String contentType) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Authorization", "Bearer " + token)
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : body);
+        if (contentType != null) {
+            request.header("Content-Type", contentType);
+        }
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            long latency = System.nanoTime() - start;
+            int status = response.statusCode();
+            if (status == 409) {
+                metrics.record(endpoint, latency, Metrics.Outcome.CONFLICT);
+                return null;
+            }
+            if (status >= 400) {
+                metrics.record(endpoint, latency, Metrics.Outcome.ERROR);
+                return null;
+            }
+            metrics.record(endpoint, latency, Metrics.Outcome.OK);
+            byte[] bytes = response.body();
+            return bytes.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(bytes);
+        } catch (IOException e) {
+            metrics.record(endpoint, System.nanoTime() - start, Metrics.Outcome.ERROR);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static void field(ByteArrayOutputStream body, String name, String value) {
+        write(body, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n");
+    }
+
+    private static void write(ByteArrayOutputStream body, String text) {
+        body.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,45 @@
+package com.greencoin.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Watches the city centre's tiles, keeps a dashboard current through
+ * /changes and opens report details.
+ */
+public class AuthorityUser extends VirtualUser {
+
+    private Long changeSeq;
+
+    public AuthorityUser(LoadTestContext context, int index, long seed) {
+        // Created with the AUTHORITY role by the backend's loadtest profile
+        super(context, "loadtest-authority-" + index, "authority-" + index + "@loadtest.local",
+                "Load Test Authority " + index, seed);
+    }
+
+    @Override
+    protected void start() throws Exception {
+        context.api().register(token, displayName);
+        connectStomp(new double[] {LoadTestContext.CENTER_LATITUDE, LoadTestContext.CENTER_LONGITUDE});
+        JsonNode baseline = context.api().changes(token, null);
+        if (baseline != null) {
+            changeSeq = baseline.path("latestSeq").asLong();
+        }
+        context.api().available(token);
+    }
+
+    @Override
+    protected void step() {
+        JsonNode changes = context.api().changes(token, changeSeq);
+        if (changes != null) {
+            changeSeq = changes.path("latestSeq").asLong();
+            if (changes.path("fullReload").asBoolean()) {
+                context.api().available(token);
+            }
+        }
+
+        Long reportId = context.timeline().recentReport();
+        if (reportId != null && random.nextInt(3) == 0) {
+            context.api().report(token, reportId);
+        }
+    }
+}
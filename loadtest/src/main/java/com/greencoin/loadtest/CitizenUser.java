@@ -0,0 +1,39 @@
+package com.greencoin.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Reports waste around the city and checks on their own reports and coins.
+ */
+public class CitizenUser extends VirtualUser {
+
+    public CitizenUser(LoadTestContext context, int index, long seed) {
+        super(context, "loadtest-citizen-" + index, "citizen-" + index + "@loadtest.local",
+                "Load Test Citizen " + index, seed);
+    }
+
+    @Override
+    protected void start() {
+        context.api().register(token, displayName);
+    }
+
+    @Override
+    protected void step() {
+        int roll = random.nextInt(10);
+        if (roll < 6) {
+            double[] position = LoadTestContext.randomPosition(random);
+            long sent = System.nanoTime();
+            JsonNode report = context.api().createReport(token, position[0], position[1],
+                    context.images().next(random));
+            if (report != null) {
+                context.timeline().created(report.path("id").asLong(), sent);
+            }
+        } else if (roll < 8) {
+            context.api().myReports(token);
+        } else if (roll < 9) {
+            context.api().balance(token);
+        } else {
+            context.api().transactions(token);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.greencoin.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Drives around with a live tile subscription, polls /nearby and races other
+ * collectors to pick up reports; a lost race is a 409 and counts as a conflict,
+ * not an error.
+ */
+public class CollectorUser extends VirtualUser {
+
+    private static final double NEARBY_RADIUS_KM = 5;
+
+    private double[] position;
+    private int steps;
+
+    public CollectorUser(LoadTestContext context, int index, long seed) {
+        // Whitelisted by the backend's loadtest profile
+        super(context, "loadtest-collector-" + index, "collector-" + index + "@loadtest.local",
+                "Load Test Collector " + index, seed);
+    }
+
+    @Override
+    protected void start() throws Exception {
+        context.api().register(token, displayName);
+        position = LoadTestContext.randomPosition(random);
+        connectStomp(position);
+    }
+
+    @Override
+    protected void step() throws InterruptedException {
+        steps++;
+        if (steps % 10 == 0) {
+            move();
+        }
+        if (steps % 5 == 0) {
+            context.api().myPickups(token);
+            return;
+        }
+
+        JsonNode nearby = context.api().nearby(token, position[0], position[1], NEARBY_RADIUS_KM);
+        if (nearby == null || nearby.isEmpty()) {
+            return;
+        }
+        // Everyone favours the closest reports, which is what makes pickups race
+        long reportId = nearby.get(random.nextInt(Math.min(3, nearby.size()))).path("id").asLong();
+        if (context.api().pick(token, reportId)) {
+            think();
+            context.api().collect(token, reportId);
+        }
+    }
+
+    /** Drive up to ~2km and tell the server, which may change our tiles */
+    private void move() {
+        position = new double[] {
+                position[0] + random.nextDouble(-0.018, 0.018),
+                position[1] + random.nextDouble(-0.018, 0.018)};
+        sendPosition(position);
+    }
+}
@@ -0,0 +1,141 @@
+package com.greencoin.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The backend's heap use over the measured part of the run, sampled from
+ * {@code jvm.memory.used} on /actuator/prometheus. The lowest sample of a
+ * stretch is close to what survives garbage collection, so the run fails if
+ * the lowest sample in the last quarter is more than {@code --max-heap-growth}
+ * percent above the lowest in the first quarter. Only checked with
+ * {@code --slow-consumers}: without stalled sessions the backend's caches are
+ * still filling during a short run.
+ */
+final class HeapCheck {
+
+    private static final Pattern HEAP_SAMPLE =
+            Pattern.compile("^jvm_memory_used_bytes\\{(?=[^}]*area=\"heap\")[^}]*} (\\S+)$");
+    private static final Duration INTERVAL = Duration.ofSeconds(5);
+    private static final int MIN_SAMPLES = 8;
+
+    /** Lowest heap use in the first and last quarter of the samples, and the peak, in bytes */
+    record Usage(int samples, long firstQuarterMin, long lastQuarterMin, long max) {
+
+        double growthPercent() {
+            return firstQuarterMin == 0 ? 0 : 100.0 * (lastQuarterMin - firstQuarterMin) / firstQuarterMin;
+        }
+    }
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final URI prometheusUrl;
+    private final String scrapeToken;
+    private final int maxGrowthPercent;
+    private final boolean enforced;
+    private final List<Long> samples = new ArrayList<>();
+    private Thread sampler;
+
+    HeapCheck(URI baseUrl, String scrapeToken, int maxGrowthPercent, boolean enforced) {
+        this.prometheusUrl = baseUrl.resolve("/actuator/prometheus");
+        this.scrapeToken = scrapeToken;
+        this.maxGrowthPercent = maxGrowthPercent;
+        this.enforced = enforced;
+    }
+
+    /** Samples from {@code fromNanos} until {@link #finish()} */
+    void start(long fromNanos) {
+        sampler = Thread.ofVirtual().name("heap-check").start(() -> {
+            try {
+                Thread.sleep(Math.max(0, (fromNanos - System.nanoTime()) / 1_000_000));
+                while (!Thread.currentThread().isInterrupted()) {
+                    Long heap = scrape();
+                    if (heap != null) {
+                        synchronized (samples) {
+                            samples.add(heap);
+                        }
+                    }
+                    Thread.sleep(INTERVAL.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * @return heap use during the run, or null with too few samples to compare
+     */
+    Usage finish() throws InterruptedException {
+        sampler.interrupt();
+        sampler.join();
+        List<Long> taken;
+        synchronized (samples) {
+            taken = List.copyOf(samples);
+        }
+        if (taken.size() < MIN_SAMPLES) {
+            return null;
+        }
+        int quarter = taken.size() / 4;
+        long firstMin = taken.subList(0, quarter).stream().mapToLong(Long::longValue).min().orElse(0);
+        long lastMin = taken.subList(taken.size() - quarter, taken.size()).stream()
+                .mapToLong(Long::longValue).min().orElse(0);
+        long max = taken.stream().mapToLong(Long::longValue).max().orElse(0);
+        return new Usage(taken.size(), firstMin, lastMin, max);
+    }
+
+    /**
+     * Prints heap use and returns false if it grew past the limit while
+     * enforced.
+     */
+    boolean report(Usage usage, PrintStream out) {
+        if (usage == null) {
+            out.println("\nBackend heap: too few samples of jvm.memory.used from " + prometheusUrl);
+            return true;
+        }
+        boolean over = usage.growthPercent() > maxGrowthPercent;
+        out.printf("%nBackend heap: %d samples, low %.1f MB at start, %.1f MB at end (%+.0f%%), peak %.1f MB%s%n",
+                usage.samples(), megabytes(usage.firstQuarterMin()), megabytes(usage.lastQuarterMin()),
+                usage.growthPercent(), megabytes(usage.max()),
+                over && enforced ? "  <-- over " + maxGrowthPercent + "%" : "");
+        return !(over && enforced);
+    }
+
+    private static double megabytes(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    /** Heap pools added up, or null when the meter couldn't be read */
+    private Long scrape() throws InterruptedException {
+        String body;
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(prometheusUrl)
+                    .header("Authorization", "Bearer " + scrapeToken)
+                    .timeout(Duration.ofSeconds(10)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            body = response.body();
+        } catch (IOException e) {
+            return null;
+        }
+        long heap = 0;
+        boolean found = false;
+        for (String line : body.split("\n")) {
+            Matcher sample = HEAP_SAMPLE.matcher(line);
+            if (sample.matches()) {
+                heap += (long) Double.parseDouble(sample.group(1));
+                found = true;
+            }
+        }
+        return found ? heap : null;
+    }
+}
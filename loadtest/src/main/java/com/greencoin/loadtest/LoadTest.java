@@ -0,0 +1,107 @@
+package com.greencoin.loadtest;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Load generator for the Green Coin backend.
+ *
+ * Runs citizens, collectors and authorities as virtual users, one virtual
+ * thread each, against a backend started with the loadtest profile (see
+ * README.md). After the warmup, every HTTP call, STOMP connect and new-report
+ * delivery is recorded; the run ends with a latency and throughput table, and
+ * a summary.json plus one HdrHistogram percentile file per endpoint in the
+ * results directory. The exit status is 1 if any endpoint issued more than
+ * --max-sql statements for one request, or if with --slow-consumers the
+ * backend's heap grew by more than --max-heap-growth percent or new reports
+ * reached the other users slower than --max-delivery-p99.
+ */
+public final class LoadTest {
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1 && args[0].equals("--help")) {
+            System.out.print(LoadTestOptions.USAGE);
+            return;
+        }
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        long measureFrom = startedAt + options.warmup().toNanos();
+        long deadline = measureFrom + options.duration().toNanos();
+        Metrics metrics = new Metrics();
+        metrics.startRecordingAt(measureFrom);
+        LoadTestContext context = LoadTestContext.create(options, metrics, deadline);
+        SqlStatementCheck sqlCheck = new SqlStatementCheck(options.baseUrl(), options.scrapeToken(),
+                options.maxSqlPerRequest());
+        sqlCheck.start();
+        HeapCheck heapCheck = new HeapCheck(options.baseUrl(), options.scrapeToken(), options.maxHeapGrowthPercent(),
+                options.slowConsumers() > 0);
+        heapCheck.start(measureFrom);
+
+        System.out.printf("Running %d citizens, %d collectors, %d authorities, %d slow consumers against %s: "
+                        + "%ds warmup, %ds measured%n",
+                options.citizens(), options.collectors(), options.authorities(), options.slowConsumers(),
+                options.baseUrl(), options.warmup().toSeconds(), options.duration().toSeconds());
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            long seed = options.seed();
+            for (int i = 0; i < options.citizens(); i++) {
+                users.execute(new CitizenUser(context, i, seed + 1_000_000 + i));
+            }
+            for (int i = 0; i < options.collectors(); i++) {
+                users.execute(new CollectorUser(context, i, seed + 2_000_000 + i));
+            }
+            for (int i = 0; i < options.authorities(); i++) {
+                users.execute(new AuthorityUser(context, i, seed + 3_000_000 + i));
+            }
+            for (int i = 0; i < options.slowConsumers(); i++) {
+                users.execute(new SlowConsumerUser(context, i, seed + 4_000_000 + i));
+            }
+        }
+
+        // Users finish their last step after the deadline; measure up to when they stopped
+        double measuredSeconds = (System.nanoTime() - measureFrom) / 1e9;
+        String runId = LocalDateTime.now().format(RUN_ID) + (options.label() != null ? "-" + options.label() : "");
+        Path runDirectory = options.output().resolve(runId);
+        Map<String, SqlStatementCheck.Usage> sqlUsage = sqlCheck.finish();
+        HeapCheck.Usage heapUsage = heapCheck.finish();
+        LoadTestReport.print(metrics, measuredSeconds, System.out);
+        boolean sqlPassed = sqlCheck.report(sqlUsage, System.out);
+        boolean heapPassed = heapCheck.report(heapUsage, System.out);
+        boolean deliveryPassed = options.slowConsumers() == 0
+                || LoadTestReport.deliveryP99(metrics) <= options.maxDeliveryP99().toMillis();
+        LoadTestReport.write(metrics, measuredSeconds, sqlUsage, heapUsage, options, runDirectory);
+        System.out.println("Results written to " + runDirectory);
+        if (!sqlPassed) {
+            System.out.println("FAILED: more than " + options.maxSqlPerRequest()
+                    + " SQL statements in one request; look for a lazy association loaded per row");
+        }
+        if (!heapPassed) {
+            System.out.println("FAILED: backend heap grew more than " + options.maxHeapGrowthPercent()
+                    + "% with slow consumers; look for per-session buffers that aren't bounded");
+        }
+        if (!deliveryPassed) {
+            System.out.printf("FAILED: new report delivery p99 was %.0f ms with slow consumers, over %d ms; "
+                            + "look for shared threads blocked writing to stalled sessions%n",
+                    LoadTestReport.deliveryP99(metrics), options.maxDeliveryP99().toMillis());
+        }
+        System.exit(sqlPassed && heapPassed && deliveryPassed ? 0 : 1);
+    }
+}
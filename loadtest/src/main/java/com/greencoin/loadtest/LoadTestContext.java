@@ -0,0 +1,42 @@
+package com.greencoin.loadtest;
+
+import java.net.http.HttpClient;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+
+/**
+ * What every virtual user shares.
+ */
+public record LoadTestContext(
+        LoadTestOptions options,
+        ApiClient api,
+        HttpClient webSocketClient,
+        TokenMinter tokens,
+        TestImages images,
+        Metrics metrics,
+        ReportTimeline timeline,
+        long deadlineNanos) {
+
+    /** Default map centre of the frontends (Bengaluru) */
+    static final double CENTER_LATITUDE = 12.9716;
+    static final double CENTER_LONGITUDE = 77.5946;
+    /** Users and reports are spread over ~±15km around the centre */
+    static final double SPREAD_DEGREES = 0.135;
+
+    static LoadTestContext create(LoadTestOptions options, Metrics metrics, long deadlineNanos) {
+        return new LoadTestContext(options, new ApiClient(options.baseUrl(), metrics),
+                HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build(),
+                new TokenMinter(options.secret()), new TestImages(options.seed()), metrics,
+                new ReportTimeline(metrics), deadlineNanos);
+    }
+
+    public boolean running() {
+        return System.nanoTime() < deadlineNanos;
+    }
+
+    public static double[] randomPosition(SplittableRandom random) {
+        return new double[] {
+                CENTER_LATITUDE + random.nextDouble(-SPREAD_DEGREES, SPREAD_DEGREES),
+                CENTER_LONGITUDE + random.nextDouble(-SPREAD_DEGREES, SPREAD_DEGREES)};
+    }
+}
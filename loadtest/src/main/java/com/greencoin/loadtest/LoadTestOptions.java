@@ -0,0 +1,100 @@
+package com.greencoin.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Command line options, as {@code --name value} pairs.
+ */
+public record LoadTestOptions(
+        URI baseUrl,
+        String secret,
+        String scrapeToken,
+        int citizens,
+        int collectors,
+        int authorities,
+        int slowConsumers,
+        Duration duration,
+        Duration warmup,
+        Duration thinkTime,
+        long seed,
+        Path output,
+        String label,
+        int maxSqlPerRequest,
+        int maxHeapGrowthPercent,
+        Duration maxDeliveryP99) {
+
+    static final String USAGE = """
+            usage: java -jar loadtest.jar [options]
+              --url <url>          backend base URL (default http://localhost:8080)
+              --secret <secret>    token signing key (default $LOADTEST_TOKEN_SECRET)
+              --scrape-token <t>   bearer token for /actuator/prometheus
+                                   (default $METRICS_SCRAPE_TOKEN, else the signing key)
+              --citizens <n>       citizens creating reports (default 50)
+              --collectors <n>     collectors polling /nearby and racing for pickups (default 20)
+              --authorities <n>    authorities watching the whole city (default 2)
+              --slow-consumers <n> STOMP clients that stop reading after subscribing (default 0)
+              --duration <d>       measured time, e.g. 60s or 5m (default 60s)
+              --warmup <d>         time before measuring starts (default 10s)
+              --think <d>          mean pause between a user's actions (default 1s)
+              --seed <n>           random seed (default 42)
+              --out <dir>          results directory (default results)
+              --label <name>       names the run in its results, e.g. platform or virtual
+              --max-sql <n>        fail if a request issued more SQL statements (default 10)
+              --max-heap-growth <percent>
+                                   with slow consumers, fail if the backend's heap grew more (default 50)
+              --max-delivery-p99 <d>
+                                   with slow consumers, fail if new reports reached the other users
+                                   slower than this at p99 (default 3s)
+            """;
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            values.put(args[i].substring(2), args[++i]);
+        }
+
+        String secret = values.getOrDefault("secret", System.getenv("LOADTEST_TOKEN_SECRET"));
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("Set --secret or LOADTEST_TOKEN_SECRET to the backend's signing key");
+        }
+        return new LoadTestOptions(
+                URI.create(values.getOrDefault("url", "http://localhost:8080")),
+                secret,
+                values.getOrDefault("scrape-token", Objects.requireNonNullElse(
+                        System.getenv("METRICS_SCRAPE_TOKEN"), secret)),
+                Integer.parseInt(values.getOrDefault("citizens", "50")),
+                Integer.parseInt(values.getOrDefault("collectors", "20")),
+                Integer.parseInt(values.getOrDefault("authorities", "2")),
+                Integer.parseInt(values.getOrDefault("slow-consumers", "0")),
+                duration(values.getOrDefault("duration", "60s")),
+                duration(values.getOrDefault("warmup", "10s")),
+                duration(values.getOrDefault("think", "1s")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Path.of(values.getOrDefault("out", "results")),
+                values.get("label"),
+                Integer.parseInt(values.getOrDefault("max-sql", "10")),
+                Integer.parseInt(values.getOrDefault("max-heap-growth", "50")),
+                duration(values.getOrDefault("max-delivery-p99", "3s")));
+    }
+
+    /** 500ms, 30s, 5m */
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Bad duration: " + value);
+        };
+    }
+}
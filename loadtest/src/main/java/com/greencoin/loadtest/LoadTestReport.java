@@ -0,0 +1,109 @@
+package com.greencoin.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Prints and saves the results of a run. Latencies are reported in
+ * milliseconds.
+ */
+final class LoadTestReport {
+
+    private LoadTestReport() {
+    }
+
+    static void print(Metrics metrics, double seconds, PrintStream out) {
+        out.printf("%n%-36s %8s %8s %6s %6s %9s %9s %9s %9s %9s%n", "Endpoint", "Count", "Req/s", "Errors",
+                "409s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        sorted(metrics).forEach((name, endpoint) -> {
+            Histogram histogram = endpoint.histogram;
+            out.printf("%-36s %8d %8.1f %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                    histogram.getTotalCount(), histogram.getTotalCount() / seconds, endpoint.errors.sum(),
+                    endpoint.conflicts.sum(), millis(histogram, 50), millis(histogram, 90),
+                    millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1000.0);
+        });
+    }
+
+    static void write(Metrics metrics, double seconds, Map<String, SqlStatementCheck.Usage> sqlUsage,
+            HeapCheck.Usage heapUsage, LoadTestOptions options, Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Map.Entry<String, Metrics.Endpoint> entry : sorted(metrics).entrySet()) {
+            Metrics.Endpoint endpoint = entry.getValue();
+            Histogram histogram = endpoint.histogram;
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", histogram.getTotalCount());
+            summary.put("ok", endpoint.ok.sum());
+            summary.put("conflicts", endpoint.conflicts.sum());
+            summary.put("errors", endpoint.errors.sum());
+            summary.put("throughputPerSecond", histogram.getTotalCount() / seconds);
+            summary.put("p50Millis", millis(histogram, 50));
+            summary.put("p90Millis", millis(histogram, 90));
+            summary.put("p99Millis", millis(histogram, 99));
+            summary.put("p999Millis", millis(histogram, 99.9));
+            summary.put("maxMillis", histogram.getMaxValue() / 1000.0);
+            endpoints.put(entry.getKey(), summary);
+
+            String file = entry.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(file)))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        if (options.label() != null) {
+            run.put("label", options.label());
+        }
+        run.put("baseUrl", options.baseUrl().toString());
+        run.put("citizens", options.citizens());
+        run.put("collectors", options.collectors());
+        run.put("authorities", options.authorities());
+        run.put("slowConsumers", options.slowConsumers());
+        run.put("maxDeliveryP99Millis", options.maxDeliveryP99().toMillis());
+        run.put("thinkTimeMillis", options.thinkTime().toMillis());
+        run.put("seed", options.seed());
+        run.put("measuredSeconds", seconds);
+        run.put("endpoints", endpoints);
+        if (sqlUsage != null) {
+            Map<String, Object> sql = new LinkedHashMap<>();
+            sqlUsage.forEach((endpoint, usage) -> sql.put(endpoint, Map.of(
+                    "requests", usage.requests(), "perRequest", usage.perRequest(), "max", usage.max())));
+            run.put("sqlStatements", sql);
+        }
+        if (heapUsage != null) {
+            run.put("heap", Map.of("samples", heapUsage.samples(),
+                    "firstQuarterMinBytes", heapUsage.firstQuarterMin(),
+                    "lastQuarterMinBytes", heapUsage.lastQuarterMin(),
+                    "maxBytes", heapUsage.max(),
+                    "growthPercent", heapUsage.growthPercent()));
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("summary.json").toFile(), run);
+    }
+
+    /**
+     * @return p99 of new report delivery in milliseconds, 0 if nothing was delivered
+     */
+    static double deliveryP99(Metrics metrics) {
+        Metrics.Endpoint delivery = metrics.getEndpoints().get(ReportTimeline.DELIVERY);
+        return delivery == null ? 0 : millis(delivery.histogram, 99);
+    }
+
+    private static Map<String, Metrics.Endpoint> sorted(Metrics metrics) {
+        return new TreeMap<>(metrics.getEndpoints());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.greencoin.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and outcome counts per endpoint. Samples taken before
+ * the warmup ends are dropped.
+ */
+public class Metrics {
+
+    /** Latencies are recorded in microseconds, up to ten minutes (stalled sessions last that long) */
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    public enum Outcome {
+        OK,
+        /** Expected losing side of a race, e.g. 409 on pick */
+        CONFLICT,
+        ERROR
+    }
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile long recordFromNanos = Long.MAX_VALUE;
+
+    public void startRecordingAt(long nanoTime) {
+        recordFromNanos = nanoTime;
+    }
+
+    public boolean isRecording() {
+        return System.nanoTime() >= recordFromNanos;
+    }
+
+    public void record(String endpoint, long latencyNanos, Outcome outcome) {
+        if (!isRecording()) {
+            return;
+        }
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+        stats.histogram.recordValue(Math.min(MAX_MICROS, Math.max(1, latencyNanos / 1000)));
+        switch (outcome) {
+            case OK -> stats.ok.increment();
+            case CONFLICT -> stats.conflicts.increment();
+            case ERROR -> stats.errors.increment();
+        }
+    }
+
+    public Map<String, Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public static class Endpoint {
+        final Histogram histogram = new ConcurrentHistogram(MAX_MICROS, 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder conflicts = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,66 @@
+package com.greencoin.loadtest;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures how long a new report takes to reach STOMP subscribers: from the
+ * moment its POST was sent to each tile frame that carries it.
+ *
+ * The frame can arrive before the POST response tells us the report id; such
+ * arrivals are parked until the citizen registers the report.
+ */
+public class ReportTimeline {
+
+    static final String DELIVERY = "STOMP new report delivery";
+    private static final int RECENT = 1024;
+
+    private final Metrics metrics;
+    private final Map<Long, Long> sentAt = new ConcurrentHashMap<>();
+    private final Map<Long, Queue<Long>> early = new ConcurrentHashMap<>();
+    private final AtomicLongArray recent = new AtomicLongArray(RECENT);
+    private final AtomicInteger createdCount = new AtomicInteger();
+
+    public ReportTimeline(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void created(long reportId, long sentNanos) {
+        sentAt.put(reportId, sentNanos);
+        recent.set(createdCount.getAndIncrement() % RECENT, reportId);
+        recordEarlyArrivals(reportId, sentNanos);
+    }
+
+    public void delivered(long reportId, long arrivalNanos) {
+        Long sent = sentAt.get(reportId);
+        if (sent != null) {
+            metrics.record(DELIVERY, arrivalNanos - sent, Metrics.Outcome.OK);
+            return;
+        }
+        early.computeIfAbsent(reportId, id -> new ConcurrentLinkedQueue<>()).add(arrivalNanos);
+        // Re-check: created() may have run between the lookup and the add
+        sent = sentAt.get(reportId);
+        if (sent != null) {
+            recordEarlyArrivals(reportId, sent);
+        }
+    }
+
+    private void recordEarlyArrivals(long reportId, long sentNanos) {
+        Queue<Long> arrivals = early.remove(reportId);
+        if (arrivals != null) {
+            arrivals.forEach(arrival -> metrics.record(DELIVERY, arrival - sentNanos, Metrics.Outcome.OK));
+        }
+    }
+
+    /** One of the last 1024 reports created, or null before the first */
+    public Long recentReport() {
+        int count = Math.min(createdCount.get(), RECENT);
+        long id = count == 0 ? 0 : recent.get(ThreadLocalRandom.current().nextInt(count));
+        return id == 0 ? null : id;
+    }
+}
@@ -0,0 +1,76 @@
+package com.greencoin.loadtest;
+
+import java.io.IOException;
+
+/**
+ * A client that stops reading its socket right after subscribing to the
+ * tiles around it, like a phone whose downlink stalled without the
+ * connection closing. It keeps sending its position every step, which also
+ * queues replies, until a send fails because the backend closed the session;
+ * it then connects again and stalls again, so stalled sessions keep arriving
+ * over the whole run. The time from connecting until the close is noticed is
+ * recorded as "STOMP stalled session".
+ *
+ * The backend's kernel send buffer still grows to megabytes before its
+ * writes block, which at one user's traffic takes many minutes; each tile is
+ * subscribed to {@link #SUBSCRIPTIONS_PER_TILE} times so that point comes
+ * within a short run.
+ *
+ * The backend has to bound what it holds for such sessions and keep them
+ * from delaying everyone else; {@link HeapCheck} and the other users'
+ * delivery latency check that it does.
+ */
+public class SlowConsumerUser extends VirtualUser {
+
+    /** A phone's receive window on a bad link, not loopback's megabytes */
+    private static final int RECEIVE_BUFFER_BYTES = 8 * 1024;
+    private static final int SUBSCRIPTIONS_PER_TILE = 20;
+
+    private double[] position;
+    private StalledStompClient stalled;
+    private long connectedAt;
+
+    public SlowConsumerUser(LoadTestContext context, int index, long seed) {
+        super(context, "loadtest-slow-" + index, "slow-" + index + "@loadtest.local",
+                "Load Test Slow Consumer " + index, seed);
+    }
+
+    @Override
+    protected void start() throws Exception {
+        context.api().register(token, displayName);
+        position = LoadTestContext.randomPosition(random);
+        connectStalled();
+    }
+
+    @Override
+    protected void step() throws Exception {
+        if (stalled.isClosed()) {
+            context.metrics().record("STOMP stalled session", System.nanoTime() - connectedAt,
+                    Metrics.Outcome.OK);
+            connectStalled();
+            return;
+        }
+        try {
+            stalled.sendPosition(position);
+        } catch (IOException e) {
+            // Noticed on the next step
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            super.run();
+        } finally {
+            if (stalled != null) {
+                stalled.close();
+            }
+        }
+    }
+
+    private void connectStalled() throws IOException {
+        connectedAt = System.nanoTime();
+        stalled = StalledStompClient.connect(context.options().baseUrl(), token, position,
+                RECEIVE_BUFFER_BYTES, SUBSCRIPTIONS_PER_TILE, random);
+    }
+}
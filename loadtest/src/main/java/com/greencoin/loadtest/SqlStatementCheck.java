@@ -0,0 +1,130 @@
+package com.greencoin.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SQL statements per request, read from the backend's {@code sql.statements}
+ * meter on /actuator/prometheus before and after the run. An endpoint whose
+ * worst request issued more than {@code --max-sql} statements fails the run:
+ * with list views that cost a fixed number of queries, that is almost always
+ * a lazy association loaded once per row (N+1).
+ */
+final class SqlStatementCheck {
+
+    private static final Pattern SAMPLE = Pattern.compile("^sql_statements_(count|sum|max)\\{(.*)} (\\S+)$");
+    private static final Pattern ENDPOINT = Pattern.compile("endpoint=\"([^\"]*)\"");
+
+    /** Requests, statements and the largest single request, per backend endpoint */
+    record Usage(long requests, long statements, long max) {
+
+        double perRequest() {
+            return requests == 0 ? 0 : (double) statements / requests;
+        }
+    }
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final URI prometheusUrl;
+    private final String scrapeToken;
+    private final int maxPerRequest;
+    private Map<String, Usage> before;
+
+    SqlStatementCheck(URI baseUrl, String scrapeToken, int maxPerRequest) {
+        this.prometheusUrl = baseUrl.resolve("/actuator/prometheus");
+        this.scrapeToken = scrapeToken;
+        this.maxPerRequest = maxPerRequest;
+    }
+
+    /** Call before the users start; the backend's counters are cumulative */
+    void start() {
+        before = scrape();
+    }
+
+    /**
+     * @return usage during the run, or null when the meter couldn't be read
+     */
+    Map<String, Usage> finish() {
+        Map<String, Usage> after = scrape();
+        if (before == null || after == null) {
+            return null;
+        }
+        Map<String, Usage> run = new TreeMap<>();
+        after.forEach((endpoint, usage) -> {
+            Usage earlier = before.getOrDefault(endpoint, new Usage(0, 0, 0));
+            long requests = usage.requests() - earlier.requests();
+            if (requests > 0 && !endpoint.equals("none") && !endpoint.contains(" /actuator/")) {
+                run.put(endpoint, new Usage(requests, usage.statements() - earlier.statements(), usage.max()));
+            }
+        });
+        return run;
+    }
+
+    /**
+     * Prints statements per request and returns false if any endpoint went
+     * over the limit.
+     */
+    boolean report(Map<String, Usage> usage, PrintStream out) {
+        if (usage == null) {
+            out.println("\nSQL statements: could not read sql.statements from " + prometheusUrl);
+            return true;
+        }
+        boolean passed = true;
+        out.printf("%n%-44s %8s %8s %8s%n", "SQL statements (backend endpoint)", "Requests", "Avg", "Max");
+        for (Map.Entry<String, Usage> entry : usage.entrySet()) {
+            Usage endpoint = entry.getValue();
+            boolean over = endpoint.max() > maxPerRequest;
+            passed &= !over;
+            out.printf("%-44s %8d %8.1f %8d%s%n", entry.getKey(), endpoint.requests(), endpoint.perRequest(),
+                    endpoint.max(), over ? "  <-- over " + maxPerRequest : "");
+        }
+        return passed;
+    }
+
+    private Map<String, Usage> scrape() {
+        String body;
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(prometheusUrl)
+                    .header("Authorization", "Bearer " + scrapeToken)
+                    .timeout(Duration.ofSeconds(10)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            body = response.body();
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        // Roles are separate series; add them up per endpoint
+        Map<String, Usage> usage = new TreeMap<>();
+        for (String line : body.split("\n")) {
+            Matcher sample = SAMPLE.matcher(line);
+            if (!sample.matches()) {
+                continue;
+            }
+            Matcher endpoint = ENDPOINT.matcher(sample.group(2));
+            if (!endpoint.find()) {
+                continue;
+            }
+            long value = (long) Double.parseDouble(sample.group(3));
+            Usage current = usage.getOrDefault(endpoint.group(1), new Usage(0, 0, 0));
+            usage.put(endpoint.group(1), switch (sample.group(1)) {
+                case "count" -> new Usage(current.requests() + value, current.statements(), current.max());
+                case "sum" -> new Usage(current.requests(), current.statements() + value, current.max());
+                default -> new Usage(current.requests(), current.statements(), Math.max(current.max(), value));
+            });
+        }
+        return usage;
+    }
+}
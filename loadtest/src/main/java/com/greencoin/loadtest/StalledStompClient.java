@@ -0,0 +1,218 @@
+package com.greencoin.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * STOMP over a plain socket with a small receive buffer, for clients that
+ * stop reading. java.net.http can't set SO_RCVBUF per connection, and on
+ * loopback the kernel grows both ends' buffers to megabytes, so a stalled
+ * java.net.http client takes many minutes to block the backend's writes.
+ * With a few KB of receive window the backend's socket fills the way it
+ * would towards a phone on a stalled mobile link.
+ *
+ * Only what a stalled client needs: connect, subscribe to the tiles around a
+ * position, then keep sending without ever reading again.
+ */
+final class StalledStompClient {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_CLOSE = 0x8;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final OutputStream out;
+    private final SplittableRandom random;
+    private int subscriptionIds;
+    private volatile boolean closed;
+
+    private StalledStompClient(Socket socket, SplittableRandom random) throws IOException {
+        this.socket = socket;
+        this.in = new DataInputStream(socket.getInputStream());
+        this.out = socket.getOutputStream();
+        this.random = random;
+    }
+
+    /**
+     * Opens the socket, sends CONNECT and subscribes to the tiles around
+     * {@code position}; reads nothing after that.
+     *
+     * @param receiveBufferBytes SO_RCVBUF, set before connecting so the window stays that small
+     * @param subscriptionsPerTile each tile is subscribed to this many times, and every
+     *                             subscription gets its own copy of each frame
+     */
+    static StalledStompClient connect(URI baseUrl, String token, double[] position, int receiveBufferBytes,
+            int subscriptionsPerTile, SplittableRandom random) throws IOException {
+        boolean secure = "https".equals(baseUrl.getScheme());
+        int port = baseUrl.getPort() > 0 ? baseUrl.getPort() : secure ? 443 : 80;
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(receiveBufferBytes);
+        socket.connect(new InetSocketAddress(baseUrl.getHost(), port), CONNECT_TIMEOUT_MILLIS);
+        if (secure) {
+            socket = ((SSLSocketFactory) SSLSocketFactory.getDefault())
+                    .createSocket(socket, baseUrl.getHost(), port, true);
+        }
+        socket.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+        StalledStompClient client = new StalledStompClient(socket, random);
+        try {
+            client.handshake(baseUrl.getHost() + ":" + port);
+            client.send("CONNECT\naccept-version:1.2\nheart-beat:0,0\nAuthorization:Bearer " + token + "\n\n");
+            client.awaitFrame("CONNECTED");
+            client.subscribe("/user/queue/tiles");
+            client.sendPosition(position);
+            for (JsonNode topic : OBJECT_MAPPER.readTree(client.awaitFrame("MESSAGE")).path("topics")) {
+                for (int i = 0; i < subscriptionsPerTile; i++) {
+                    client.subscribe(topic.asText());
+                }
+            }
+            return client;
+        } catch (IOException | RuntimeException e) {
+            client.close();
+            throw e;
+        }
+    }
+
+    void sendPosition(double[] position) throws IOException {
+        send("SEND\ndestination:/app/reports/position\ncontent-type:application/json\n\n"
+                + "{\"latitude\":" + position[0] + ",\"longitude\":" + position[1] + "}");
+    }
+
+    /**
+     * True once a send failed: the backend closed the session. Without
+     * reading, that is the only way to find out.
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Already gone
+        }
+    }
+
+    private void subscribe(String destination) throws IOException {
+        send("SUBSCRIBE\nid:sub-" + ++subscriptionIds + "\ndestination:" + destination + "\n\n");
+    }
+
+    private void handshake(String host) throws IOException {
+        byte[] nonce = new byte[16];
+        random.nextBytes(nonce);
+        out.write(("GET /ws/websocket HTTP/1.1\r\n"
+                + "Host: " + host + "\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: " + Base64.getEncoder().encodeToString(nonce) + "\r\n"
+                + "Sec-WebSocket-Version: 13\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        String response = readHttpHead(in);
+        if (!response.startsWith("HTTP/1.1 101")) {
+            throw new IOException("WebSocket upgrade refused: " + response.lines().findFirst().orElse(""));
+        }
+    }
+
+    /**
+     * @return the body of the next STOMP frame, which must have the given command
+     */
+    private String awaitFrame(String command) throws IOException {
+        String frame = readText().stripLeading();
+        int headersEnd = frame.indexOf("\n\n");
+        String actual = frame.substring(0, Math.max(0, frame.indexOf('\n')));
+        if (!actual.equals(command) || headersEnd < 0) {
+            throw new IOException("Expected " + command + ", got: " + frame.lines().findFirst().orElse(""));
+        }
+        String body = frame.substring(headersEnd + 2);
+        return body.endsWith("\0") ? body.substring(0, body.length() - 1) : body;
+    }
+
+    /** Writes one masked text frame, as every client-to-server frame must be */
+    private synchronized void send(String frame) throws IOException {
+        byte[] payload = (frame + "\0").getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream message = new ByteArrayOutputStream(payload.length + 14);
+        message.write(0x80 | OPCODE_TEXT);
+        if (payload.length < 126) {
+            message.write(0x80 | payload.length);
+        } else {
+            message.write(0x80 | 126);
+            message.write(payload.length >>> 8);
+            message.write(payload.length);
+        }
+        byte[] mask = new byte[4];
+        random.nextBytes(mask);
+        message.write(mask);
+        for (int i = 0; i < payload.length; i++) {
+            message.write(payload[i] ^ mask[i % 4]);
+        }
+        try {
+            out.write(message.toByteArray());
+            out.flush();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /** Reads one text message, skipping control frames */
+    private String readText() throws IOException {
+        List<byte[]> fragments = new ArrayList<>();
+        while (true) {
+            int first = in.readUnsignedByte();
+            int second = in.readUnsignedByte();
+            long length = second & 0x7f;
+            if (length == 126) {
+                length = in.readUnsignedShort();
+            } else if (length == 127) {
+                length = in.readLong();
+            }
+            byte[] payload = in.readNBytes((int) length);
+            int opcode = first & 0x0f;
+            if (opcode == OPCODE_CLOSE) {
+                throw new IOException("Closed by the backend");
+            }
+            if (opcode == OPCODE_TEXT || opcode == 0) {
+                fragments.add(payload);
+                if ((first & 0x80) != 0) {
+                    ByteArrayOutputStream text = new ByteArrayOutputStream();
+                    for (byte[] fragment : fragments) {
+                        text.write(fragment);
+                    }
+                    return text.toString(StandardCharsets.UTF_8);
+                }
+            }
+        }
+    }
+
+    private static String readHttpHead(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        while (matched < 4) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Connection closed during the WebSocket upgrade");
+            }
+            head.write(b);
+            matched = b == "\r\n\r\n".charAt(matched) ? matched + 1 : b == '\r' ? 1 : 0;
+        }
+        return head.toString(StandardCharsets.US_ASCII);
+    }
+}
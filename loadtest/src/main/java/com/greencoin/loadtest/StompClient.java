@@ -0,0 +1,125 @@
+package com.greencoin.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Minimal STOMP 1.2 client over the raw WebSocket transport of the SockJS
+ * endpoint ({@code /ws/websocket}).
+ */
+public class StompClient implements WebSocket.Listener {
+
+    private final BiConsumer<String, String> onMessage;
+    private final CompletableFuture<Void> connected = new CompletableFuture<>();
+    private final StringBuilder pending = new StringBuilder();
+    private final AtomicInteger subscriptionIds = new AtomicInteger();
+    private WebSocket socket;
+    private CompletableFuture<?> lastSend = CompletableFuture.completedFuture(null);
+
+    private StompClient(BiConsumer<String, String> onMessage) {
+        this.onMessage = onMessage;
+    }
+
+    /**
+     * Opens the socket and sends CONNECT; the connection time, up to CONNECTED,
+     * is recorded as "STOMP CONNECT".
+     *
+     * @param onMessage called with (destination, body) for every MESSAGE frame
+     */
+    public static StompClient connect(HttpClient httpClient, URI baseUrl, String token, Metrics metrics,
+            BiConsumer<String, String> onMessage) throws Exception {
+        StompClient client = new StompClient(onMessage);
+        URI uri = URI.create(baseUrl.toString().replaceFirst("^http", "ws")).resolve("/ws/websocket");
+        long start = System.nanoTime();
+        try {
+            client.socket = httpClient.newWebSocketBuilder()
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .buildAsync(uri, client)
+                    .get(10, TimeUnit.SECONDS);
+            client.send("CONNECT\naccept-version:1.2\nheart-beat:0,0\nAuthorization:Bearer " + token + "\n\n");
+            client.connected.get(10, TimeUnit.SECONDS);
+            metrics.record("STOMP CONNECT", System.nanoTime() - start, Metrics.Outcome.OK);
+            return client;
+        } catch (Exception e) {
+            metrics.record("STOMP CONNECT", System.nanoTime() - start, Metrics.Outcome.ERROR);
+            throw e;
+        }
+    }
+
+    public void subscribe(String destination) {
+        send("SUBSCRIBE\nid:sub-" + subscriptionIds.incrementAndGet() + "\ndestination:" + destination + "\n\n");
+    }
+
+    public void sendJson(String destination, String json) {
+        send("SEND\ndestination:" + destination + "\ncontent-type:application/json\n\n" + json);
+    }
+
+    public synchronized void close() {
+        if (socket != null) {
+            lastSend = lastSend.handle((ignored, error) -> null)
+                    .thenCompose(ignored -> socket.sendClose(WebSocket.NORMAL_CLOSURE, "done"));
+        }
+    }
+
+    /**
+     * Queues the frame behind the previous one, since WebSocket allows one
+     * outstanding send at a time. Never blocks: sends are issued from listener
+     * callbacks, and a virtual thread waiting inside this monitor would pin the
+     * only carrier on a one-core machine.
+     */
+    private synchronized void send(String frame) {
+        lastSend = lastSend.handle((ignored, error) -> null)
+                .thenCompose(ignored -> socket.sendText(frame + "\0", true));
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        pending.append(data);
+        int end;
+        while ((end = pending.indexOf("\0")) >= 0) {
+            String frame = pending.substring(0, end);
+            pending.delete(0, end + 1);
+            handle(frame);
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        connected.completeExceptionally(error);
+    }
+
+    private void handle(String frame) {
+        // Heart-beats and frame separators are bare newlines
+        String text = frame.stripLeading();
+        int headersEnd = text.indexOf("\n\n");
+        if (text.isEmpty() || headersEnd < 0) {
+            return;
+        }
+        String[] lines = text.substring(0, headersEnd).split("\n");
+        Map<String, String> headers = new HashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                headers.putIfAbsent(lines[i].substring(0, colon), lines[i].substring(colon + 1));
+            }
+        }
+        switch (lines[0]) {
+            case "CONNECTED" -> connected.complete(null);
+            case "MESSAGE" -> onMessage.accept(headers.get("destination"), text.substring(headersEnd + 2));
+            case "ERROR" -> connected.completeExceptionally(new IllegalStateException(headers.get("message")));
+            default -> {
+            }
+        }
+    }
+}
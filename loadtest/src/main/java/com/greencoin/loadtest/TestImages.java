@@ -0,0 +1,68 @@
+package com.greencoin.loadtest;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Report photos: a fixed-seed set of 640x480 JPEGs (~40-60KB). Each upload gets
+ * a unique JPEG comment, so the backend's content-addressed store sees a new
+ * photo (and makes new thumbnails) every time, as with real users.
+ */
+public class TestImages {
+
+    private static final int VARIANTS = 16;
+
+    private final byte[][] images = new byte[VARIANTS][];
+    private final AtomicLong uploads = new AtomicLong();
+
+    public TestImages(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < VARIANTS; i++) {
+            images[i] = render(random);
+        }
+    }
+
+    public byte[] next(SplittableRandom random) {
+        byte[] image = images[random.nextInt(VARIANTS)];
+        byte[] comment = ("loadtest-" + uploads.incrementAndGet()).getBytes(StandardCharsets.US_ASCII);
+        int segmentLength = comment.length + 2;
+
+        // SOI, then a COM segment (FF FE, 2-byte length including itself), then the rest
+        byte[] unique = new byte[image.length + 2 + segmentLength];
+        unique[0] = image[0];
+        unique[1] = image[1];
+        unique[2] = (byte) 0xFF;
+        unique[3] = (byte) 0xFE;
+        unique[4] = (byte) (segmentLength >> 8);
+        unique[5] = (byte) segmentLength;
+        System.arraycopy(comment, 0, unique, 6, comment.length);
+        System.arraycopy(image, 2, unique, 6 + comment.length, image.length - 2);
+        return unique;
+    }
+
+    private static byte[] render(SplittableRandom random) {
+        BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        for (int i = 0; i < 400; i++) {
+            graphics.setColor(new Color(random.nextInt(0x1000000)));
+            graphics.fillRect(random.nextInt(640), random.nextInt(480), 8 + random.nextInt(80), 8 + random.nextInt(80));
+        }
+        graphics.dispose();
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
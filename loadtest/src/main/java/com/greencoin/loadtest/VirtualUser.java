@@ -0,0 +1,105 @@
+package com.greencoin.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One simulated user: signs in, then repeats {@link #step()} with a random
+ * think time in between until the run ends. Runs on its own virtual thread.
+ */
+public abstract class VirtualUser implements Runnable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    protected final LoadTestContext context;
+    protected final SplittableRandom random;
+    protected final String displayName;
+    protected final String token;
+    private final Set<String> tiles = ConcurrentHashMap.newKeySet();
+    protected StompClient stomp;
+
+    protected VirtualUser(LoadTestContext context, String uid, String email, String displayName, long seed) {
+        this.context = context;
+        this.random = new SplittableRandom(seed);
+        this.displayName = displayName;
+        Instant expiresAt = Instant.now().plus(context.options().warmup()).plus(context.options().duration())
+                .plusSeconds(3600);
+        this.token = context.tokens().mint(uid, email, expiresAt);
+    }
+
+    protected abstract void start() throws Exception;
+
+    protected abstract void step() throws Exception;
+
+    @Override
+    public void run() {
+        try {
+            // Spread sign-ins over the first think time instead of all at once
+            Thread.sleep(random.nextLong(Math.max(1, context.options().thinkTime().toMillis())));
+            start();
+            while (context.running()) {
+                step();
+                think();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println(displayName + " stopped: " + e);
+        } finally {
+            if (stomp != null) {
+                stomp.close();
+            }
+        }
+    }
+
+    /** Exponentially distributed pause with the configured mean, capped at 5x */
+    protected void think() throws InterruptedException {
+        double mean = context.options().thinkTime().toMillis();
+        long pause = (long) Math.min(mean * 5, -mean * Math.log(1 - random.nextDouble()));
+        Thread.sleep(pause);
+    }
+
+    /**
+     * Connects over STOMP, follows tile subscriptions for the given position,
+     * and reports every OPEN report seen on a tile to the timeline.
+     */
+    protected void connectStomp(double[] position) throws Exception {
+        stomp = StompClient.connect(context.webSocketClient(), context.options().baseUrl(), token,
+                context.metrics(), this::onMessage);
+        stomp.subscribe("/user/queue/tiles");
+        sendPosition(position);
+    }
+
+    protected void sendPosition(double[] position) {
+        stomp.sendJson("/app/reports/position",
+                "{\"latitude\":" + position[0] + ",\"longitude\":" + position[1] + "}");
+    }
+
+    private void onMessage(String destination, String body) {
+        long now = System.nanoTime();
+        try {
+            JsonNode json = OBJECT_MAPPER.readTree(body);
+            if ("/user/queue/tiles".equals(destination)) {
+                for (JsonNode topic : json.path("topics")) {
+                    if (tiles.add(topic.asText())) {
+                        stomp.subscribe(topic.asText());
+                    }
+                }
+                return;
+            }
+            for (JsonNode report : json.isArray() ? json : OBJECT_MAPPER.createArrayNode().add(json)) {
+                if ("OPEN".equals(report.path("status").asText())) {
+                    context.timeline().delivered(report.path("id").asLong(), now);
+                }
+            }
+        } catch (IOException e) {
+            context.metrics().record("STOMP message parse", 0, Metrics.Outcome.ERROR);
+        }
+    }
+}